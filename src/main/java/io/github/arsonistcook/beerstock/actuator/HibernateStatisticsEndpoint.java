@@ -0,0 +1,82 @@
+package io.github.arsonistcook.beerstock.actuator;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Exposes the Hibernate session statistics (requires {@code hibernate.generate_statistics}) at
+ * {@code /actuator/hibernatestatistics}. A DELETE resets the counters, which makes it easy to
+ * measure a single scenario.
+ */
+@Component
+@Endpoint(id = "hibernatestatistics")
+public class HibernateStatisticsEndpoint {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("sessionsOpened", statistics.getSessionOpenCount());
+        result.put("transactions", statistics.getTransactionCount());
+        result.put("preparedStatements", statistics.getPrepareStatementCount());
+        result.put("flushes", statistics.getFlushCount());
+        result.put("entityLoads", statistics.getEntityLoadCount());
+        result.put("entityFetches", statistics.getEntityFetchCount());
+        result.put("entityInserts", statistics.getEntityInsertCount());
+        result.put("entityUpdates", statistics.getEntityUpdateCount());
+        result.put("entityDeletes", statistics.getEntityDeleteCount());
+        result.put("queryExecutions", statistics.getQueryExecutionCount());
+        result.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("slowestQueryMillis", statistics.getQueryExecutionMaxTime());
+        result.put("entities", Arrays.stream(statistics.getEntityNames())
+                .collect(Collectors.toMap(Function.identity(), this::entityStatistics, (a, b) -> a, LinkedHashMap::new)));
+        result.put("queries", Arrays.stream(statistics.getQueries())
+                .collect(Collectors.toMap(Function.identity(), this::queryStatistics, (a, b) -> a, LinkedHashMap::new)));
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+    }
+
+    private Map<String, Long> entityStatistics(String entityName) {
+        EntityStatistics entityStatistics = statistics.getEntityStatistics(entityName);
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("loads", entityStatistics.getLoadCount());
+        result.put("fetches", entityStatistics.getFetchCount());
+        result.put("inserts", entityStatistics.getInsertCount());
+        result.put("updates", entityStatistics.getUpdateCount());
+        result.put("deletes", entityStatistics.getDeleteCount());
+        return result;
+    }
+
+    private Map<String, Long> queryStatistics(String query) {
+        QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("executions", queryStatistics.getExecutionCount());
+        result.put("rows", queryStatistics.getExecutionRowCount());
+        result.put("averageMillis", queryStatistics.getExecutionAvgTime());
+        result.put("maxMillis", queryStatistics.getExecutionMaxTime());
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.arsonistcook.beerstock.actuator;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "beerstock.hibernate.statements", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "beerstock.hibernate.queries", "HQL/JPQL and native queries executed", Statistics::getQueryExecutionCount);
+        counter(registry, "beerstock.hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        counter(registry, "beerstock.hibernate.entity.loads", "Entities loaded", Statistics::getEntityLoadCount);
+        counter(registry, "beerstock.hibernate.entity.inserts", "Entities inserted", Statistics::getEntityInsertCount);
+        counter(registry, "beerstock.hibernate.entity.updates", "Entities updated", Statistics::getEntityUpdateCount);
+        counter(registry, "beerstock.hibernate.entity.deletes", "Entities deleted", Statistics::getEntityDeleteCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.arsonistcook.beerstock.actuator;
+
+import io.github.arsonistcook.beerstock.dto.HotKeyDTO;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.github.arsonistcook.beerstock.service.BeerHotKeyTracker;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the hottest beer ids and names per operation at {@code /actuator/hotkeys}, or for a
+ * single operation at {@code /actuator/hotkeys/{operation}}. A DELETE resets the sketches.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final BeerHotKeyTracker beerHotKeyTracker;
+
+    public HotKeysEndpoint(BeerHotKeyTracker beerHotKeyTracker) {
+        this.beerHotKeyTracker = beerHotKeyTracker;
+    }
+
+    @ReadOperation
+    public Map<BeerOperation, List<HotKeyDTO>> hotKeys() {
+        return beerHotKeyTracker.hottest();
+    }
+
+    @ReadOperation
+    public List<HotKeyDTO> hotKeys(@Selector BeerOperation operation) {
+        return beerHotKeyTracker.hottest(operation);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        beerHotKeyTracker.clear();
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.arsonistcook.beerstock.actuator;
+
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registered through {@code hibernate.session.events.auto}, so Hibernate creates one per session.
+ * With open-session-in-view a session spans the whole request, which makes the recorded values
+ * the JDBC time and statement count per request.
+ */
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    private static final String JDBC_TIME_METRIC = "beerstock.hibernate.session.jdbc.time";
+    private static final String JDBC_STATEMENTS_METRIC = "beerstock.hibernate.session.jdbc.statements";
+
+    private long executionStartNanos;
+    private long executionNanos;
+    private long executions;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executionNanos += System.nanoTime() - executionStartNanos;
+        executions++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executionNanos += System.nanoTime() - executionStartNanos;
+        executions++;
+    }
+
+    @Override
+    public void end() {
+        if (executions == 0) {
+            return;
+        }
+        Metrics.timer(JDBC_TIME_METRIC).record(executionNanos, TimeUnit.NANOSECONDS);
+        Metrics.summary(JDBC_STATEMENTS_METRIC).record(executions);
+    }
+}
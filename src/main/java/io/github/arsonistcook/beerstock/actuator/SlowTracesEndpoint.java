@@ -0,0 +1,35 @@
+package io.github.arsonistcook.beerstock.actuator;
+
+import io.github.arsonistcook.beerstock.trace.RequestTrace;
+import io.github.arsonistcook.beerstock.trace.RequestTracer;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Lists the most recent sampled requests slower than {@code beerstock.trace.slow-threshold-ms},
+ * with their span tree, at {@code /actuator/slowtraces}. A DELETE empties the buffer.
+ */
+@Component
+@Endpoint(id = "slowtraces")
+public class SlowTracesEndpoint {
+
+    private final RequestTracer requestTracer;
+
+    public SlowTracesEndpoint(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @ReadOperation
+    public List<RequestTrace> slowTraces() {
+        return requestTracer.slowTraces();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        requestTracer.clear();
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.arsonistcook.beerstock.config;
+
+import io.github.arsonistcook.beerstock.entity.BeerLease;
+import io.github.arsonistcook.beerstock.service.BeerLeaseManager;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lets a mutation through only on the instance holding the lease for the beer id; any other
+ * instance answers with a 307 to the owner, which preserves the method and body on retry.
+ * Only mutations addressed by id are routed: POST creates (no id yet) and the bulk PUT upsert
+ * (ids from every partition) are served by whichever instance receives them.
+ */
+@Component
+@ConditionalOnProperty(name = "beerstock.lease.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerLeaseInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> MUTATING_METHODS = Set.of("PATCH", "PUT", "DELETE");
+    private static final String ID_VARIABLE = "id";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final BeerLeaseManager beerLeaseManager;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!MUTATING_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        Optional<Long> beerId = beerIdOf(request);
+        if (beerId.isEmpty() || beerLeaseManager.isOwner(beerId.get())) {
+            return true;
+        }
+
+        Optional<BeerLease> owner = beerLeaseManager.ownerOf(beerId.get())
+                .filter(lease -> lease.getOwnerUrl() != null)
+                .filter(lease -> !lease.getOwner().equals(beerLeaseManager.getInstanceId()));
+        if (owner.isPresent()) {
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, UriComponentsBuilder.fromHttpUrl(owner.get().getOwnerUrl())
+                    .path(request.getRequestURI())
+                    .query(request.getQueryString())
+                    .build(true)
+                    .toUriString());
+        } else {
+            // partition is between owners (failover in progress)
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Long> beerIdOf(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || !variables.containsKey(ID_VARIABLE)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.valueOf(variables.get(ID_VARIABLE)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
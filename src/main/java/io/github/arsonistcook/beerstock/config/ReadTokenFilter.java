@@ -0,0 +1,93 @@
+package io.github.arsonistcook.beerstock.config;
+
+import io.github.arsonistcook.beerstock.service.BeerService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds a read token to the response of every beer mutation. Reads sending it back in the same
+ * header are served once the read model has caught up with that write. The header is set when the
+ * response starts being written (the controller has returned by then), or after the chain for
+ * responses without a body, so nothing is buffered.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReadTokenFilter extends OncePerRequestFilter {
+    public static final String READ_TOKEN_HEADER = "X-Read-Token";
+    private static final String BEER_API_PREFIX = "/api/v1/beers";
+
+    private final BeerService beerService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || !request.getRequestURI().startsWith(BEER_API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadTokenResponse readTokenResponse = new ReadTokenResponse(response);
+        try {
+            filterChain.doFilter(request, readTokenResponse);
+        } finally {
+            readTokenResponse.setReadToken();
+        }
+    }
+
+    private final class ReadTokenResponse extends HttpServletResponseWrapper {
+        private boolean readTokenSet;
+
+        private ReadTokenResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void setReadToken() {
+            if (!readTokenSet && !isCommitted()) {
+                setHeader(READ_TOKEN_HEADER, Long.toString(beerService.readToken()));
+            }
+            readTokenSet = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setReadToken();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setReadToken();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setReadToken();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setReadToken();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setReadToken();
+            super.sendError(sc, msg);
+        }
+    }
+}
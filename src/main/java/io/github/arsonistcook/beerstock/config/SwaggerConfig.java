@@ -1,8 +1,11 @@
 package io.github.arsonistcook.beerstock.config;
 
 import io.swagger.models.License;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -10,8 +13,12 @@ import springfox.documentation.service.ApiInfo;
 import springfox.documentation.service.Contact;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+
 @Configuration
 @EnableSwagger2
 public class SwaggerConfig {
@@ -34,6 +41,31 @@ public class SwaggerConfig {
                 .apiInfo(buildApiInfo());
     }
 
+    /**
+     * Springfox 3 only understands handler mappings matched with the ant path matcher; since Boot 2.6
+     * the actuator endpoints are mapped with path patterns and break its startup. Those mappings are
+     * dropped from what springfox scans, they are not part of the documented API anyway.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerMappingsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    handlerMappingsOf(bean).removeIf(mapping -> mapping.getPatternParser() != null);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<RequestMappingInfoHandlerMapping> handlerMappingsOf(Object handlerProvider) {
+        Field field = ReflectionUtils.findField(handlerProvider.getClass(), "handlerMappings");
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, handlerProvider);
+    }
+
     private ApiInfo buildApiInfo() {
         return new ApiInfoBuilder()
                 .title(API_TITLE)
@@ -0,0 +1,52 @@
+package io.github.arsonistcook.beerstock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in ({@code beerstock.virtual-threads.enabled}) mode that runs every Tomcat request, and so
+ * every controller, service and repository call on it, on its own virtual thread instead of the
+ * fixed platform-thread pool.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "beerstock.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Embedded H2 waits for row locks inside synchronized blocks, which pins the virtual thread to its
+     * carrier. If every carrier were pinned by a waiter, the thread holding the lock could never run
+     * again; keeping the pool below the number of carriers guarantees one is always free.
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadConnectionPoolPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    HikariDataSource dataSource = (HikariDataSource) bean;
+                    int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                            Runtime.getRuntime().availableProcessors());
+                    int poolSize = Math.max(1, Math.min(dataSource.getMaximumPoolSize(), carriers - 1));
+                    if (poolSize < dataSource.getMaximumPoolSize()) {
+                        log.info("Limiting the connection pool to {} connections for {} virtual thread carriers", poolSize, carriers);
+                        dataSource.setMaximumPoolSize(poolSize);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.arsonistcook.beerstock.config;
+
+import io.github.arsonistcook.beerstock.trace.TracingValidator;
+import io.github.arsonistcook.beerstock.validation.FastPathValidator;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WebConfig implements WebMvcConfigurer {
+    private static final String BEER_API_PATTERN = "/api/v1/beers/**";
+
+    private final ObjectProvider<BeerLeaseInterceptor> beerLeaseInterceptor;
+    private final javax.validation.Validator validator;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        beerLeaseInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns(BEER_API_PATTERN));
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new TracingValidator(new FastPathValidator(new SpringValidatorAdapter(validator)));
+    }
+}
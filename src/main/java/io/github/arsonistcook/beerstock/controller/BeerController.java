@@ -1,29 +1,47 @@
 package io.github.arsonistcook.beerstock.controller;
 
+import io.github.arsonistcook.beerstock.config.ReadTokenFilter;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerChangesExpiredDTO;
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
 import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerType;
 import io.github.arsonistcook.beerstock.exception.*;
 import io.github.arsonistcook.beerstock.service.BeerService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
+    public static final String CHANGE_CURSOR_HEADER = "X-Change-Cursor";
 
     private final BeerService beerService;
 
@@ -33,14 +51,43 @@ public class BeerController implements BeerControllerDocs {
         return beerService.createBeer(beerDTO);
     }
 
+    @PostMapping("/lookup")
+    public List<BeerLookupResultDTO> lookup(@RequestBody @Valid BeerLookupDTO beerLookupDTO) {
+        return beerService.lookup(beerLookupDTO);
+    }
+
+    // the required params leave GET /changes and GET /consumption to findByName, for beers named so
+    @GetMapping(value = "/changes", params = "since")
+    public CompletableFuture<BeerChangesDTO> listChanges(@RequestParam long since,
+                                                         @RequestParam(defaultValue = "0") long waitMillis) throws BeerChangeFeedExpiredException {
+        return beerService.listChanges(since, waitMillis);
+    }
+
+    @GetMapping(value = "/consumption", params = "type")
+    public List<BeerConsumptionDTO> listConsumptionByType(@RequestParam BeerType type) {
+        return beerService.listConsumptionByType(type);
+    }
+
+    @GetMapping("/{id}/consumption")
+    public BeerConsumptionDTO findConsumptionById(@PathVariable Long id) throws BeerNotFoundException {
+        return beerService.findConsumptionById(id);
+    }
+
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public BeerDTO findByName(@PathVariable String name,
+                              @RequestParam(required = false) List<String> fields,
+                              @RequestHeader(value = ReadTokenFilter.READ_TOKEN_HEADER, defaultValue = "0") long readToken) throws BeerNotFoundException, BeerFieldUnknownException {
+        return beerService.findByName(name, readToken, BeerField.parse(fields));
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public List<BeerDTO> listBeers(@Valid BeerFilterDTO filter,
+                                   @RequestParam(required = false) List<String> fields,
+                                   @RequestHeader(value = ReadTokenFilter.READ_TOKEN_HEADER, defaultValue = "0") long readToken,
+                                   HttpServletResponse response) throws BeerFieldUnknownException {
+        // read before the query, so resuming the change feed from it can only replay changes the listing already has
+        response.setHeader(CHANGE_CURSOR_HEADER, Long.toString(beerService.changeCursor()));
+        return beerService.listAll(filter, readToken, BeerField.parse(fields));
     }
 
     @DeleteMapping("/{id}")
@@ -58,4 +105,20 @@ public class BeerController implements BeerControllerDocs {
     public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockNegativeArgumentException, BeerStockMinimumException {
         return beerService.decrement(id, quantityDTO.getQuantity());
     }
-}
\ No newline at end of file
+
+    @PutMapping("/{id}/quantity")
+    public BeerDTO setQuantity(@PathVariable Long id, @RequestBody @Valid StockQuantityDTO stockQuantityDTO) throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        return beerService.setQuantity(id, stockQuantityDTO.getQuantity());
+    }
+
+    @PutMapping
+    public List<BeerDTO> upsertByName(@RequestBody @Valid BeerUpsertDTO beerUpsertDTO) throws BeerStockInvalidException {
+        return beerService.upsertByName(beerUpsertDTO);
+    }
+
+    @ExceptionHandler(BeerChangeFeedExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public BeerChangesExpiredDTO handleChangeFeedExpired(BeerChangeFeedExpiredException e) {
+        return new BeerChangesExpiredDTO(e.getSince(), e.getOldestSequence(), e.getLastSequence(), e.getMessage());
+    }
+}
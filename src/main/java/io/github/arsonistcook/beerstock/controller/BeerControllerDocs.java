@@ -1,38 +1,89 @@
 package io.github.arsonistcook.beerstock.controller;
 
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerChangesExpiredDTO;
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import io.github.arsonistcook.beerstock.enums.BeerType;
 import io.github.arsonistcook.beerstock.exception.BeerAlreadyRegisteredException;
+import io.github.arsonistcook.beerstock.exception.BeerChangeFeedExpiredException;
+import io.github.arsonistcook.beerstock.exception.BeerFieldUnknownException;
 import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
+import io.github.arsonistcook.beerstock.exception.BeerStockExceededException;
+import io.github.arsonistcook.beerstock.exception.BeerStockInvalidException;
+import io.github.arsonistcook.beerstock.exception.BeerStockNegativeArgumentException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.web.bind.annotation.PathVariable;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Api("Manages beer stock")
 public interface BeerControllerDocs {
 
-    @ApiOperation(value = "Beer creation operation")
+    @ApiOperation(value = "Beer creation operation",
+            notes = "The id is only known once stored, so any instance serves it, also with leases enabled")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Success beer creation"),
             @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
 
-    @ApiOperation(value = "Returns beer found by a given name")
+    @ApiOperation(value = "Returns many beers found by given ids and/or names in a single call")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One result per requested id, then per requested name, in request order"),
+            @ApiResponse(code = 400, message = "More than 500 ids or names.")
+    })
+    List<BeerLookupResultDTO> lookup(BeerLookupDTO beerLookupDTO);
+
+    @ApiOperation(value = "Returns the beers created, updated or deleted after a given change sequence",
+            notes = "After a 410, list every beer and resume from the X-Change-Cursor header of that listing")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Changes after the given sequence, waiting up to waitMillis for new ones"),
+            @ApiResponse(code = 410, message = "Given sequence is no longer retained, a full resync is required.", response = BeerChangesExpiredDTO.class)
+    })
+    CompletableFuture<BeerChangesDTO> listChanges(long since, long waitMillis) throws BeerChangeFeedExpiredException;
+
+    @ApiOperation(value = "Returns the consumption rates and projected days of stock of every beer of a given type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Consumption of the beers of the given type"),
+            @ApiResponse(code = 400, message = "Unknown beer type.")
+    })
+    List<BeerConsumptionDTO> listConsumptionByType(BeerType type);
+
+    @ApiOperation(value = "Returns the consumption rates and projected days of stock of a beer found by a given valid Id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Consumption of the beer"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    BeerConsumptionDTO findConsumptionById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns beer found by a given name",
+            notes = "Pass the X-Read-Token of a previous write to read your own writes; fields=id,name limits the returned properties")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
+            @ApiResponse(code = 400, message = "Unknown field."),
             @ApiResponse(code = 404, message = "Beer with given name not found.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    BeerDTO findByName(@PathVariable String name, List<String> fields, long readToken) throws BeerNotFoundException, BeerFieldUnknownException;
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Returns a list of the beers registered in the system, optionally filtered and sorted",
+            notes = "Pass the X-Read-Token of a previous write to read your own writes; fields=id,name limits the returned properties. "
+                    + "The X-Change-Cursor header is the change sequence to resume the change feed from")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "List of the beers matching every given filter"),
+            @ApiResponse(code = 400, message = "Invalid filter, sort property or unknown field")
     })
-    List<BeerDTO> listBeers();
+    List<BeerDTO> listBeers(BeerFilterDTO filter, List<String> fields, long readToken, HttpServletResponse response) throws BeerFieldUnknownException;
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -40,4 +91,20 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
-}
\ No newline at end of file
+
+    @ApiOperation(value = "Sets the stock of a beer found by a given valid Id to an absolute quantity")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success beer stock set"),
+            @ApiResponse(code = 400, message = "Quantity negative or above the beer max stock."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    BeerDTO setQuantity(@PathVariable Long id, StockQuantityDTO stockQuantityDTO) throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException;
+
+    @ApiOperation(value = "Creates or updates beers matched by name in bulk",
+            notes = "A batch spans every lease partition, so any instance serves it, also with leases enabled")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers as stored after the upsert, in request order"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or quantity above max; nothing is stored.")
+    })
+    List<BeerDTO> upsertByName(BeerUpsertDTO beerUpsertDTO) throws BeerStockInvalidException;
+}
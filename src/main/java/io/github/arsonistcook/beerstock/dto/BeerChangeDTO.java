@@ -0,0 +1,23 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerChangeDTO {
+
+    private long sequence;
+
+    private BeerChangeType type;
+
+    private Long beerId;
+
+    // null for DELETED changes, which are tombstones carrying only the id
+    private BeerDTO beer;
+}
@@ -0,0 +1,22 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerChangesDTO {
+
+    private long since;
+
+    // value to send as "since" on the next call
+    private long cursor;
+
+    private List<BeerChangeDTO> changes;
+}
@@ -0,0 +1,22 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerChangesExpiredDTO {
+
+    private long since;
+
+    // oldest sequence still served; a cursor from oldestSequence - 1 on resumes incrementally
+    private long oldestSequence;
+
+    private long lastSequence;
+
+    private String message;
+}
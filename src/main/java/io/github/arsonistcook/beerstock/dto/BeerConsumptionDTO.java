@@ -0,0 +1,30 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerConsumptionDTO {
+
+    private Long beerId;
+
+    private String name;
+
+    private BeerType type;
+
+    private int quantity;
+
+    // units consumed per day, exponentially weighted over each horizon
+    private Map<String, Double> ratesPerDay;
+
+    // days until quantity reaches zero at each horizon's rate, null when nothing is being consumed
+    private Map<String, Double> daysOfStock;
+}
@@ -1,6 +1,7 @@
 package io.github.arsonistcook.beerstock.dto;
 
 import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.validation.QuantityWithinMax;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,7 @@ import lombok.NoArgsConstructor;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
@@ -16,6 +18,7 @@ import javax.validation.constraints.Size;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@QuantityWithinMax
 public class BeerDTO {
 
     private Long id;
@@ -33,6 +36,7 @@ public class BeerDTO {
     private Integer max;
 
     @NotNull
+    @Min(0)
     @Max(100)
     private Integer quantity;
 
@@ -0,0 +1,44 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerFilterDTO {
+
+    private BeerType type;
+
+    @Size(min = 1, max = 200)
+    private String brand;
+
+    @Min(0)
+    private Integer minQuantity;
+
+    @Min(0)
+    private Integer maxQuantity;
+
+    // beers whose stock is below this percentage of their max
+    @Min(1)
+    @Max(100)
+    private Integer belowPercentOfMax;
+
+    // property[,asc|desc]
+    @Pattern(regexp = "(id|name|brand|type|quantity|max)(,(asc|desc))?")
+    private String sort;
+
+    public boolean isEmpty() {
+        return type == null && brand == null && minQuantity == null && maxQuantity == null
+                && belowPercentOfMax == null && sort == null;
+    }
+}
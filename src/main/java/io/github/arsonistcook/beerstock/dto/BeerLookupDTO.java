@@ -0,0 +1,22 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerLookupDTO {
+
+    @Size(max = 500)
+    private List<Long> ids;
+
+    @Size(max = 500)
+    private List<String> names;
+}
@@ -0,0 +1,30 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerLookupResultDTO {
+
+    // the requested key: either id or name is set
+    private Long id;
+
+    private String name;
+
+    private boolean found;
+
+    private BeerDTO beer;
+
+    public static BeerLookupResultDTO ofId(Long id, BeerDTO beer) {
+        return new BeerLookupResultDTO(id, null, beer != null, beer);
+    }
+
+    public static BeerLookupResultDTO ofName(String name, BeerDTO beer) {
+        return new BeerLookupResultDTO(null, name, beer != null, beer);
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeerUpsertDTO {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid BeerDTO> beers;
+}
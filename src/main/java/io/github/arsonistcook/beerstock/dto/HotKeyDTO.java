@@ -0,0 +1,19 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HotKeyDTO {
+
+    // a beer id or a beer name, depending on the operation
+    private Object key;
+
+    // upper bound of the decayed frequency; never underestimates
+    private long estimatedCount;
+}
@@ -0,0 +1,11 @@
+package io.github.arsonistcook.beerstock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A beer carrying only the properties selected with {@code fields=}. The others are null and left
+ * out of the JSON, while a full {@link BeerDTO} always serializes every property.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProjectedBeerDTO extends BeerDTO {
+}
@@ -4,19 +4,34 @@ import io.github.arsonistcook.beerstock.enums.BeerType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
+@Check(constraints = "quantity >= 0 and quantity <= max")
+@Table(uniqueConstraints = @UniqueConstraint(name = Beer.NAME_CONSTRAINT, columnNames = "name"), indexes = {
+        @Index(name = "idx_beer_type_quantity", columnList = "type, quantity"),
+        @Index(name = "idx_beer_brand_quantity", columnList = "brand, quantity"),
+        @Index(name = "idx_beer_quantity", columnList = "quantity"),
+        @Index(name = "idx_beer_deleted_at", columnList = "deleted_at")
+})
+// deleted beers stay as tombstones until BeerTombstonePurger removes them; native queries must filter them out
+@Where(clause = "deleted_at is null")
 public class Beer {
+    // named, so a violation of it can be told apart from one of the check constraint
+    public static final String NAME_CONSTRAINT = "uk_beer_name";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Column(nullable = false)
@@ -31,4 +46,7 @@ public class Beer {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BeerType type;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
 }
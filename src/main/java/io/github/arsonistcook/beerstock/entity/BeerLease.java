@@ -0,0 +1,28 @@
+package io.github.arsonistcook.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerLease {
+    @Id
+    private String name;
+
+    @Column
+    private String owner;
+
+    @Column
+    private String ownerUrl;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
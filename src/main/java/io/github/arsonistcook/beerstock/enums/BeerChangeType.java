@@ -0,0 +1,14 @@
+package io.github.arsonistcook.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerChangeType {
+    CREATED("Created"),
+    UPDATED("Updated"),
+    DELETED("Deleted");
+
+    private final String description;
+}
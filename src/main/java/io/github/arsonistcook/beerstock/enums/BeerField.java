@@ -0,0 +1,79 @@
+package io.github.arsonistcook.beerstock.enums;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.ProjectedBeerDTO;
+import io.github.arsonistcook.beerstock.exception.BeerFieldUnknownException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Properties of {@link BeerDTO} a client can select with {@code fields=}; the property name is both
+ * the JSON name and the {@code Beer} attribute selected by the query.
+ */
+@AllArgsConstructor
+public enum BeerField {
+    ID("id", BeerDTO::getId, (beer, value) -> beer.setId((Long) value)),
+    NAME("name", BeerDTO::getName, (beer, value) -> beer.setName((String) value)),
+    BRAND("brand", BeerDTO::getBrand, (beer, value) -> beer.setBrand((String) value)),
+    MAX("max", BeerDTO::getMax, (beer, value) -> beer.setMax((Integer) value)),
+    QUANTITY("quantity", BeerDTO::getQuantity, (beer, value) -> beer.setQuantity((Integer) value)),
+    TYPE("type", BeerDTO::getType, (beer, value) -> beer.setType((BeerType) value));
+
+    public static final Set<BeerField> ALL = Collections.unmodifiableSet(EnumSet.allOf(BeerField.class));
+
+    private static final Map<String, BeerField> BY_PROPERTY = Arrays.stream(values())
+            .collect(Collectors.toMap(BeerField::getProperty, Function.identity()));
+
+    @Getter
+    private final String property;
+    private final Function<BeerDTO, Object> getter;
+    private final BiConsumer<BeerDTO, Object> setter;
+
+    /**
+     * @return the fields named by the given properties, or every field if none is given
+     */
+    public static Set<BeerField> parse(Collection<String> properties) throws BeerFieldUnknownException {
+        if (properties == null || properties.isEmpty()) {
+            return ALL;
+        }
+        Set<BeerField> fields = EnumSet.noneOf(BeerField.class);
+        for (String property : properties) {
+            BeerField field = BY_PROPERTY.get(property.trim());
+            if (field == null) {
+                throw new BeerFieldUnknownException(property, BY_PROPERTY.keySet());
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    /**
+     * @return a copy of the beer carrying only the given fields, or the beer itself if all are given
+     */
+    public static BeerDTO project(BeerDTO beer, Set<BeerField> fields) {
+        if (fields.size() == ALL.size()) {
+            return beer;
+        }
+        BeerDTO projected = new ProjectedBeerDTO();
+        fields.forEach(field -> field.set(projected, field.get(beer)));
+        return projected;
+    }
+
+    public Object get(BeerDTO beer) {
+        return getter.apply(beer);
+    }
+
+    public void set(BeerDTO beer, Object value) {
+        setter.accept(beer, value);
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.arsonistcook.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerOperation {
+    FIND_BY_NAME("Find by name"),
+    INCREMENT("Increment"),
+    DECREMENT("Decrement"),
+    SET_QUANTITY("Set quantity"),
+    DELETE("Delete");
+
+    private final String description;
+}
@@ -0,0 +1,16 @@
+package io.github.arsonistcook.beerstock.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j(topic = "beerstock.audit")
+@Component
+public class BeerAuditLogHandler implements BeerEventHandler {
+
+    @Override
+    public void onEvent(BeerEvent event, boolean endOfBatch) {
+        if (log.isInfoEnabled()) {
+            log.info("#{} {} beer {}: {}", event.getSequence(), event.getType(), event.getBeerId(), event.getBeer());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.arsonistcook.beerstock.event;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import lombok.Getter;
+
+/**
+ * Preallocated ring buffer slot. Instances are reused, so handlers must copy whatever they need
+ * to keep after {@link BeerEventHandler#onEvent} returns (the {@link BeerDTO} itself is never reused).
+ */
+@Getter
+public class BeerEvent {
+
+    private long sequence;
+
+    private BeerChangeType type;
+
+    private Long beerId;
+
+    private BeerDTO beer;
+
+    // the single-beer write behind the change; null for creates and batch upserts
+    private BeerOperation operation;
+
+    private long timestamp;
+
+    void set(BeerChangeDTO change, BeerOperation operation, long timestamp) {
+        this.sequence = change.getSequence();
+        this.type = change.getType();
+        this.beerId = change.getBeerId();
+        this.beer = change.getBeer();
+        this.operation = operation;
+        this.timestamp = timestamp;
+    }
+
+    void clear() {
+        this.type = null;
+        this.beerId = null;
+        this.beer = null;
+        this.operation = null;
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.arsonistcook.beerstock.event;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-process pipeline of beer mutations. Events are sharded by beer id over a fixed number of ring
+ * buffers, each drained by its own consumer thread, which keeps the per-beer order while handlers
+ * run off the request thread. Publishing never waits, so it is safe under the write lock of a beer:
+ * under {@link OverflowPolicy#BLOCK} a full ring defers the event, and the writer waits for room in
+ * {@link #flush()} once it has released its locks. On shutdown it stops after the web server and
+ * drains what is queued.
+ */
+@Slf4j
+@Component
+public class BeerEventBus implements SmartLifecycle, MeterBinder {
+
+    private static final String THREAD_NAME_PREFIX = "beer-events-";
+
+    private final ObjectProvider<BeerEventHandler> handlerProvider;
+    private final OverflowPolicy overflowPolicy;
+    private final long shutdownTimeoutMillis;
+    private final BeerEventRingBuffer[] ringBuffers;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong handlerErrors = new AtomicLong();
+    private List<BeerEventHandler> handlers = List.of();
+    private volatile boolean started;
+
+    public BeerEventBus(ObjectProvider<BeerEventHandler> handlerProvider,
+                        @Value("${beerstock.events.shards:4}") int shards,
+                        @Value("${beerstock.events.capacity:1024}") int capacity,
+                        @Value("${beerstock.events.batch-size:64}") int batchSize,
+                        @Value("${beerstock.events.wait-strategy:BLOCKING}") WaitStrategy waitStrategy,
+                        @Value("${beerstock.events.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+                        @Value("${beerstock.events.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis) {
+        this.handlerProvider = handlerProvider;
+        this.overflowPolicy = overflowPolicy;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.ringBuffers = new BeerEventRingBuffer[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            ringBuffers[shard] = new BeerEventRingBuffer(capacity, batchSize, waitStrategy, this::dispatch);
+        }
+    }
+
+    /**
+     * Never waits for a free slot; under {@link OverflowPolicy#BLOCK} an event that finds the ring
+     * full is deferred until the next {@link #flush()}, still in order with the beer's other events.
+     *
+     * @param operation the single-beer write behind the change, or null for creates and batch upserts
+     * @return false if the event was dropped (ring full under {@link OverflowPolicy#DROP}, or bus stopped)
+     */
+    public boolean publish(BeerChangeDTO change, BeerOperation operation) {
+        BeerEventRingBuffer ringBuffer = ringBuffers[(int) Math.floorMod(change.getBeerId(), (long) ringBuffers.length)];
+        if (overflowPolicy == OverflowPolicy.BLOCK && ringBuffer.isRunning()) {
+            if (ringBuffer.publishOrDefer(change, operation)) {
+                published.incrementAndGet();
+            } else {
+                overflows.incrementAndGet();
+            }
+            return true;
+        }
+        if (ringBuffer.tryPublish(change, operation)) {
+            published.incrementAndGet();
+            return true;
+        }
+        if (ringBuffer.isRunning()) {
+            overflows.incrementAndGet();
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Hands the deferred events over to their rings, waiting for free slots. Writers call it after
+     * releasing their locks, so the wait only holds back the writer itself.
+     */
+    public void flush() {
+        for (BeerEventRingBuffer ringBuffer : ringBuffers) {
+            published.addAndGet(ringBuffer.flushDeferred());
+        }
+    }
+
+    @Override
+    public void start() {
+        handlers = handlerProvider.orderedStream().collect(Collectors.toUnmodifiableList());
+        for (int shard = 0; shard < ringBuffers.length; shard++) {
+            ringBuffers[shard].start(THREAD_NAME_PREFIX + shard);
+        }
+        started = true;
+    }
+
+    @Override
+    public void stop() {
+        for (BeerEventRingBuffer ringBuffer : ringBuffers) {
+            published.addAndGet(ringBuffer.flushDeferred());
+            try {
+                ringBuffer.stop(shutdownTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dropped.addAndGet(ringBuffer.deferredCount());
+            long undelivered = ringBuffer.lag() + ringBuffer.deferredCount();
+            if (undelivered > 0) {
+                log.warn("Beer event bus stopped with {} undelivered events", undelivered);
+            }
+        }
+        started = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started;
+    }
+
+    /**
+     * Starts before and stops after the web server, so requests never publish to a stopped bus.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("beerstock.events.published", published, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("beerstock.events.overflows", overflows, AtomicLong::get)
+                .description("Publishes that found the ring buffer full and were deferred or dropped")
+                .register(registry);
+        FunctionCounter.builder("beerstock.events.dropped", dropped, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("beerstock.events.handler.errors", handlerErrors, AtomicLong::get)
+                .register(registry);
+        for (int shard = 0; shard < ringBuffers.length; shard++) {
+            Gauge.builder("beerstock.events.lag", ringBuffers[shard], BeerEventRingBuffer::lag)
+                    .description("Events published but not yet handled")
+                    .tag("shard", String.valueOf(shard))
+                    .register(registry);
+            Gauge.builder("beerstock.events.deferred", ringBuffers[shard], BeerEventRingBuffer::deferredCount)
+                    .description("Events waiting in front of a full ring buffer")
+                    .tag("shard", String.valueOf(shard))
+                    .register(registry);
+            Gauge.builder("beerstock.events.capacity", ringBuffers[shard], BeerEventRingBuffer::capacity)
+                    .tag("shard", String.valueOf(shard))
+                    .register(registry);
+        }
+    }
+
+    private void dispatch(BeerEvent event, boolean endOfBatch) {
+        for (BeerEventHandler handler : handlers) {
+            try {
+                handler.onEvent(event, endOfBatch);
+            } catch (RuntimeException e) {
+                handlerErrors.incrementAndGet();
+                log.error("Beer event handler {} failed on event {}", handler.getClass().getSimpleName(), event.getSequence(), e);
+            }
+        }
+    }
+}
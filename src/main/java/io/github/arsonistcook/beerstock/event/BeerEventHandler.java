@@ -0,0 +1,11 @@
+package io.github.arsonistcook.beerstock.event;
+
+/**
+ * Receives beer mutations off the request thread. Events of the same beer id are always delivered
+ * in order, by the same consumer thread; {@code endOfBatch} is set on the last event of a batch so
+ * handlers can defer expensive work until then.
+ */
+public interface BeerEventHandler {
+
+    void onEvent(BeerEvent event, boolean endOfBatch);
+}
@@ -0,0 +1,230 @@
+package io.github.arsonistcook.beerstock.event;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-producer, single-consumer ring of preallocated {@link BeerEvent} slots. Producers claim a
+ * sequence with a CAS, fill the slot and mark it published; the consumer thread hands every run of
+ * contiguous published slots (up to {@code batchSize}) to the dispatcher as one batch.
+ * Producers that must not wait can defer their event to an unbounded FIFO in front of the ring
+ * instead; later events queue behind it until {@link #flushDeferred()} hands the queue over.
+ */
+class BeerEventRingBuffer implements Runnable {
+
+    private static final long PARK_NANOS = 1_000_000;
+    private static final long FULL_BACKOFF_NANOS = 10_000;
+
+    private final BeerEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int batchSize;
+    private final WaitStrategy waitStrategy;
+    private final Dispatcher dispatcher;
+
+    private final Queue<Deferred> deferred = new ConcurrentLinkedQueue<>();
+    private final Lock flushLock = new ReentrantLock();
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed = -1;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private Thread consumer;
+
+    interface Dispatcher {
+        void dispatch(BeerEvent event, boolean endOfBatch);
+    }
+
+    BeerEventRingBuffer(int capacity, int batchSize, WaitStrategy waitStrategy, Dispatcher dispatcher) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new BeerEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new BeerEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+        this.dispatcher = dispatcher;
+    }
+
+    void start(String threadName) {
+        consumer = new Thread(this, threadName);
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * @return false if the ring was full and the event could not be published without waiting
+     */
+    boolean tryPublish(BeerChangeDTO change, BeerOperation operation) {
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        publish(sequence, change, operation);
+        return true;
+    }
+
+    /**
+     * Waits for a free slot; only gives up (returning false) if the consumer is stopped meanwhile.
+     */
+    boolean publishBlocking(BeerChangeDTO change, BeerOperation operation) {
+        long sequence;
+        while ((sequence = tryClaim()) < 0) {
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+        }
+        publish(sequence, change, operation);
+        return true;
+    }
+
+    /**
+     * Publishes behind the events already deferred, never waiting for a free slot: if any are
+     * queued, or the ring is full, the event is deferred too.
+     *
+     * @return false if the event was deferred
+     */
+    boolean publishOrDefer(BeerChangeDTO change, BeerOperation operation) {
+        // a deferred event leaves the queue only once it is in the ring, so nothing published
+        // here can overtake one that was deferred before it
+        if (deferred.isEmpty() && tryPublish(change, operation)) {
+            return true;
+        }
+        deferred.add(new Deferred(change, operation));
+        return false;
+    }
+
+    /**
+     * Moves the deferred events into the ring in order, waiting for free slots. Stops early,
+     * leaving the rest deferred, if the consumer is stopped meanwhile.
+     *
+     * @return how many events were published
+     */
+    int flushDeferred() {
+        if (deferred.isEmpty()) {
+            return 0;
+        }
+        int flushed = 0;
+        flushLock.lock();
+        try {
+            Deferred next;
+            while ((next = deferred.peek()) != null) {
+                if (!publishBlocking(next.change, next.operation)) {
+                    break;
+                }
+                deferred.poll();
+                flushed++;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return flushed;
+    }
+
+    int deferredCount() {
+        return deferred.size();
+    }
+
+    long lag() {
+        return claimed.get() - consumed - 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops accepting new events and lets the consumer drain the ones already claimed.
+     */
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            consumer.join(timeoutMillis);
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = consumed + 1;
+        int idleCount = 0;
+        while (true) {
+            long available = next - 1;
+            while (available + 1 - next < batchSize && published.get(indexOf(available + 1)) == available + 1) {
+                available++;
+            }
+            if (available >= next) {
+                for (long sequence = next; sequence <= available; sequence++) {
+                    BeerEvent event = slots[indexOf(sequence)];
+                    dispatcher.dispatch(event, sequence == available);
+                    event.clear();
+                }
+                consumed = available;
+                next = available + 1;
+                idleCount = 0;
+            } else if (!running && claimed.get() == next) {
+                return;
+            } else if (waitStrategy.idle(idleCount++)) {
+                parked = true;
+                if (published.get(indexOf(next)) != next && running) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private long tryClaim() {
+        while (running) {
+            long sequence = claimed.get();
+            if (sequence - consumed > slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private void publish(long sequence, BeerChangeDTO change, BeerOperation operation) {
+        int index = indexOf(sequence);
+        slots[index].set(change, operation, System.currentTimeMillis());
+        published.set(index, sequence);
+        if (parked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private int indexOf(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private static class Deferred {
+        private final BeerChangeDTO change;
+        private final BeerOperation operation;
+
+        private Deferred(BeerChangeDTO change, BeerOperation operation) {
+            this.change = change;
+            this.operation = operation;
+        }
+    }
+}
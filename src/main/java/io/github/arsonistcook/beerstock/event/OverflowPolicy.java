@@ -0,0 +1,13 @@
+package io.github.arsonistcook.beerstock.event;
+
+public enum OverflowPolicy {
+    /**
+     * The event is deferred and the publishing thread waits for a free slot in
+     * {@link BeerEventBus#flush()}, so no event is ever lost.
+     */
+    BLOCK,
+    /**
+     * The event is discarded and counted.
+     */
+    DROP
+}
@@ -0,0 +1,42 @@
+package io.github.arsonistcook.beerstock.event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How an idle consumer waits for the next event: trading CPU burned while idle for the latency of
+ * picking up a new event.
+ */
+public enum WaitStrategy {
+    BLOCKING,
+    SLEEPING,
+    YIELDING,
+    BUSY_SPIN;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = 100_000;
+
+    /**
+     * @return true when the consumer should park until a producer wakes it up
+     */
+    boolean idle(int idleCount) {
+        if (this == BUSY_SPIN || idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+            return false;
+        }
+        switch (this) {
+            case YIELDING:
+                Thread.yield();
+                return false;
+            case SLEEPING:
+                if (idleCount < YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+                return false;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.arsonistcook.beerstock.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.GONE)
+public class BeerChangeFeedExpiredException extends Exception {
+
+    private final long since;
+    private final long oldestSequence;
+    private final long lastSequence;
+
+    public BeerChangeFeedExpiredException(long since, long oldestSequence, long lastSequence) {
+        super(String.format("Changes since %s are no longer available (oldest retained: %s). A full resync is required.", since, oldestSequence));
+        this.since = since;
+        this.oldestSequence = oldestSequence;
+        this.lastSequence = lastSequence;
+    }
+}
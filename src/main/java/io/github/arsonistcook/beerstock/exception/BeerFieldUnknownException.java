@@ -0,0 +1,15 @@
+package io.github.arsonistcook.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerFieldUnknownException extends Exception {
+
+    public BeerFieldUnknownException(String field, Collection<String> knownFields) {
+        super(String.format("Unknown beer field %s, expected any of %s.", field, new TreeSet<>(knownFields)));
+    }
+}
@@ -9,4 +9,8 @@ public class BeerStockExceededException extends Exception {
     public BeerStockExceededException(Long id, int quantityToIncrement) {
         super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
     }
+
+    public BeerStockExceededException(Long id, int quantity, int max) {
+        super(String.format("Quantity %s to set for beer with %s ID exceeds its max stock capacity of %s.", quantity, id, max));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package io.github.arsonistcook.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerStockInvalidException extends Exception {
+
+    public BeerStockInvalidException() {
+        super("Beers informed must have a quantity between 0 and their max stock capacity.");
+    }
+}
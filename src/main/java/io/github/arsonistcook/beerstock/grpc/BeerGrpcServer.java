@@ -0,0 +1,87 @@
+package io.github.arsonistcook.beerstock.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link BeerStockGrpcService} on its own port next to the web server
+ * ({@code beerstock.grpc.enabled}). Port 0 picks a free port, see {@link #getPort()}.
+ */
+@Slf4j
+@Component
+public class BeerGrpcServer implements SmartLifecycle {
+
+    private final boolean enabled;
+    private final int port;
+    private final long shutdownTimeoutMillis;
+    private final BeerStockGrpcService beerStockGrpcService;
+
+    private volatile Server server;
+
+    @Autowired
+    public BeerGrpcServer(@Value("${beerstock.grpc.enabled:false}") boolean enabled,
+                          @Value("${beerstock.grpc.port:9090}") int port,
+                          @Value("${beerstock.grpc.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis,
+                          BeerStockGrpcService beerStockGrpcService) {
+        this.enabled = enabled;
+        this.port = port;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.beerStockGrpcService = beerStockGrpcService;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                    .addService(ServerInterceptors.intercept(beerStockGrpcService, new ClientAddressInterceptor()))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + port, e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server runningServer = server;
+        if (runningServer == null) {
+            return;
+        }
+        // new calls are refused at once; open AdjustStock streams get until the timeout to end
+        runningServer.shutdown();
+        try {
+            if (!runningServer.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                runningServer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            runningServer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        Server runningServer = server;
+        return runningServer == null ? -1 : runningServer.getPort();
+    }
+}
@@ -0,0 +1,212 @@
+package io.github.arsonistcook.beerstock.grpc;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.entity.BeerLease;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
+import io.github.arsonistcook.beerstock.exception.BeerStockExceededException;
+import io.github.arsonistcook.beerstock.exception.BeerStockMinimumException;
+import io.github.arsonistcook.beerstock.exception.BeerStockNegativeArgumentException;
+import io.github.arsonistcook.beerstock.grpc.v1.BeerReply;
+import io.github.arsonistcook.beerstock.grpc.v1.BeerStockGrpc;
+import io.github.arsonistcook.beerstock.grpc.v1.FindByNameRequest;
+import io.github.arsonistcook.beerstock.grpc.v1.LookupReply;
+import io.github.arsonistcook.beerstock.grpc.v1.LookupRequest;
+import io.github.arsonistcook.beerstock.grpc.v1.LookupResult;
+import io.github.arsonistcook.beerstock.grpc.v1.StockDelta;
+import io.github.arsonistcook.beerstock.grpc.v1.StockResult;
+import io.github.arsonistcook.beerstock.grpc.v1.StockStatus;
+import io.github.arsonistcook.beerstock.limit.MutationThrottle;
+import io.github.arsonistcook.beerstock.service.BeerLeaseManager;
+import io.github.arsonistcook.beerstock.service.BeerService;
+import io.github.arsonistcook.beerstock.validation.BeerConstraints;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gRPC counterpart of the lookup and stock endpoints of {@code BeerController}, delegating to
+ * the same {@link BeerService}, so both transports share validation limits, change feed, journal
+ * and read model. AdjustStock deltas also go through the same {@link MutationThrottle} as the PATCH
+ * endpoints and, with leases enabled, are only applied on the instance owning the beer's partition,
+ * like BeerLeaseInterceptor does for HTTP; a delta refused for either gets a per-delta status
+ * instead of ending the stream.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockGrpcService extends BeerStockGrpc.BeerStockImplBase {
+
+    private static final int LOOKUP_MAX_KEYS = 500;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BETWEEN_OWNERS_RETRY_MILLIS = 1000;
+
+    private final BeerService beerService;
+    private final Optional<BeerLeaseManager> beerLeaseManager;
+    private final MutationThrottle mutationThrottle;
+
+    @Override
+    public void findByName(FindByNameRequest request, StreamObserver<BeerReply> responseObserver) {
+        try {
+            responseObserver.onNext(toReply(beerService.findByName(request.getName(), 0, BeerField.ALL)));
+            responseObserver.onCompleted();
+        } catch (BeerNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void lookup(LookupRequest request, StreamObserver<LookupReply> responseObserver) {
+        // the @Size(max = 500) of BeerLookupDTO
+        if (request.getIdsCount() > LOOKUP_MAX_KEYS || request.getNamesCount() > LOOKUP_MAX_KEYS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("More than " + LOOKUP_MAX_KEYS + " ids or names.")
+                    .asRuntimeException());
+            return;
+        }
+        LookupReply.Builder reply = LookupReply.newBuilder();
+        beerService.lookup(new BeerLookupDTO(request.getIdsList(), request.getNamesList()))
+                .forEach(result -> reply.addResults(toLookupResult(result)));
+        responseObserver.onNext(reply.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<StockDelta> adjustStock(StreamObserver<StockResult> responseObserver) {
+        ServerCallStreamObserver<StockResult> results = (ServerCallStreamObserver<StockResult>) responseObserver;
+        results.disableAutoRequest();
+        AdjustStockCall call = new AdjustStockCall(results, ClientAddressInterceptor.CLIENT_ADDRESS.get());
+        results.setOnReadyHandler(call::onReady);
+        return call;
+    }
+
+    StockResult adjust(StockDelta delta, String client) {
+        StockResult.Builder result = StockResult.newBuilder().setCorrelationId(delta.getCorrelationId());
+        int quantity = Math.abs(delta.getQuantity());
+        // the same limit as the QuantityDTO body of the PATCH endpoints, in either direction
+        if (!BeerConstraints.isValid(new QuantityDTO(quantity))) {
+            return result.setStatus(StockStatus.INVALID)
+                    .setMessage("Quantity " + delta.getQuantity() + " is out of range.")
+                    .build();
+        }
+        if (beerLeaseManager.isPresent() && !beerLeaseManager.get().isOwner(delta.getBeerId())) {
+            return notOwner(result, beerLeaseManager.get(), delta.getBeerId());
+        }
+        long waitNanos = mutationThrottle.tryAcquire(delta.getBeerId(), client);
+        if (waitNanos > 0) {
+            return result.setStatus(StockStatus.THROTTLED)
+                    .setRetryAfterMs((waitNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI)
+                    .setMessage("Beer " + delta.getBeerId() + " or this client is over its stock mutation rate.")
+                    .build();
+        }
+        try {
+            BeerDTO beer = delta.getQuantity() >= 0
+                    ? beerService.increment(delta.getBeerId(), quantity)
+                    : beerService.decrement(delta.getBeerId(), quantity);
+            return result.setStatus(StockStatus.OK).setBeer(toReply(beer)).build();
+        } catch (BeerNotFoundException e) {
+            return result.setStatus(StockStatus.NOT_FOUND).setMessage(e.getMessage()).build();
+        } catch (BeerStockExceededException e) {
+            return result.setStatus(StockStatus.EXCEEDED).setMessage(e.getMessage()).build();
+        } catch (BeerStockMinimumException e) {
+            return result.setStatus(StockStatus.BELOW_MINIMUM).setMessage(e.getMessage()).build();
+        } catch (BeerStockNegativeArgumentException e) {
+            return result.setStatus(StockStatus.INVALID).setMessage(e.getMessage()).build();
+        }
+    }
+
+    private static StockResult notOwner(StockResult.Builder result, BeerLeaseManager beerLeaseManager, long beerId) {
+        Optional<BeerLease> owner = beerLeaseManager.ownerOf(beerId)
+                .filter(lease -> lease.getOwnerUrl() != null)
+                .filter(lease -> !lease.getOwner().equals(beerLeaseManager.getInstanceId()));
+        if (owner.isPresent()) {
+            return result.setStatus(StockStatus.NOT_OWNER)
+                    .setOwnerUrl(owner.get().getOwnerUrl())
+                    .setMessage("Beer " + beerId + " is owned by " + owner.get().getOwnerUrl() + ".")
+                    .build();
+        }
+        // partition is between owners (failover in progress)
+        return result.setStatus(StockStatus.NOT_OWNER)
+                .setRetryAfterMs(BETWEEN_OWNERS_RETRY_MILLIS)
+                .setMessage("The partition of beer " + beerId + " is between owners.")
+                .build();
+    }
+
+    private static BeerReply toReply(BeerDTO beer) {
+        return BeerReply.newBuilder()
+                .setId(beer.getId())
+                .setName(beer.getName())
+                .setBrand(beer.getBrand())
+                .setMax(beer.getMax())
+                .setQuantity(beer.getQuantity())
+                .setType(beer.getType().name())
+                .build();
+    }
+
+    private static LookupResult toLookupResult(BeerLookupResultDTO result) {
+        LookupResult.Builder lookupResult = LookupResult.newBuilder().setFound(result.isFound());
+        if (result.getId() != null) {
+            lookupResult.setId(result.getId());
+        } else {
+            lookupResult.setName(result.getName());
+        }
+        if (result.isFound()) {
+            lookupResult.setBeer(toReply(result.getBeer()));
+        }
+        return lookupResult.build();
+    }
+
+    /**
+     * One AdjustStock stream. gRPC runs the callbacks of a call one at a time, so the state needs no
+     * locking. A delta is only requested from the client while the outbound side can take a result:
+     * when the client stops reading, its deltas stay in its own buffers and the transport's flow
+     * control window pushes back, instead of results piling up in server memory.
+     */
+    private class AdjustStockCall implements StreamObserver<StockDelta> {
+        private final ServerCallStreamObserver<StockResult> results;
+        private final String client;
+        private boolean requested;
+
+        AdjustStockCall(ServerCallStreamObserver<StockResult> results, String client) {
+            this.results = results;
+            this.client = client;
+        }
+
+        void onReady() {
+            if (results.isReady() && !requested) {
+                requested = true;
+                results.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(StockDelta delta) {
+            results.onNext(adjust(delta, client));
+            if (results.isReady()) {
+                results.request(1);
+            } else {
+                requested = false;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("AdjustStock stream cancelled by the client", t);
+        }
+
+        @Override
+        public void onCompleted() {
+            results.onCompleted();
+        }
+    }
+}
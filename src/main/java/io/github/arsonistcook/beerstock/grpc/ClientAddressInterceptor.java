@@ -0,0 +1,38 @@
+package io.github.arsonistcook.beerstock.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Puts the caller's address in the {@link Context} of the call, for the per-client throttle of
+ * AdjustStock. An IP address is kept in the form the servlet container reports it, so one host
+ * draws from the same client bucket over HTTP and gRPC.
+ */
+class ClientAddressInterceptor implements ServerInterceptor {
+    static final Context.Key<String> CLIENT_ADDRESS = Context.keyWithDefault("beerstock-client-address", "unknown");
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers, ServerCallHandler<Q, R> next) {
+        SocketAddress remoteAddress = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (remoteAddress == null) {
+            return next.startCall(call, headers);
+        }
+        Context context = Context.current().withValue(CLIENT_ADDRESS, addressOf(remoteAddress));
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+
+    private static String addressOf(SocketAddress remoteAddress) {
+        if (remoteAddress instanceof InetSocketAddress && ((InetSocketAddress) remoteAddress).getAddress() != null) {
+            return ((InetSocketAddress) remoteAddress).getAddress().getHostAddress();
+        }
+        return remoteAddress.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary layout shared by snapshots and the write-ahead log. Strings are UTF-8 with an
+ * unsigned short length, enums are stored by ordinal, so new constants must only be appended.
+ */
+final class BeerCodec {
+
+    private static final BeerChangeType[] CHANGE_TYPES = BeerChangeType.values();
+    private static final BeerType[] BEER_TYPES = BeerType.values();
+
+    private BeerCodec() {
+    }
+
+    static byte[] encode(BeerDTO beer) {
+        byte[] name = beer.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] brand = beer.getBrand().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Short.BYTES + name.length + Short.BYTES + brand.length
+                + Short.BYTES + Short.BYTES + Byte.BYTES);
+        buffer.putLong(beer.getId());
+        putBytes(buffer, name);
+        putBytes(buffer, brand);
+        buffer.putShort(beer.getMax().shortValue());
+        buffer.putShort(beer.getQuantity().shortValue());
+        buffer.put((byte) beer.getType().ordinal());
+        return buffer.array();
+    }
+
+    static BeerDTO decodeBeer(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String name = getString(buffer);
+        String brand = getString(buffer);
+        int max = buffer.getShort();
+        int quantity = buffer.getShort();
+        BeerType type = BEER_TYPES[buffer.get()];
+        return new BeerDTO(id, name, brand, max, quantity, type);
+    }
+
+    static byte[] encode(BeerChangeDTO change) {
+        byte[] beer = change.getBeer() == null ? new byte[0] : encode(change.getBeer());
+        return ByteBuffer.allocate(Long.BYTES + Byte.BYTES + Long.BYTES + beer.length)
+                .putLong(change.getSequence())
+                .put((byte) change.getType().ordinal())
+                .putLong(change.getBeerId())
+                .put(beer)
+                .array();
+    }
+
+    static BeerChangeDTO decodeChange(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        BeerChangeType type = CHANGE_TYPES[buffer.get()];
+        long beerId = buffer.getLong();
+        BeerDTO beer = buffer.hasRemaining() ? decodeBeer(buffer) : null;
+        return new BeerChangeDTO(sequence, type, beerId, beer);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
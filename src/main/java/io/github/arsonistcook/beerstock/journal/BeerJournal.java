@@ -0,0 +1,310 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.service.BeerChangeFeed;
+import io.github.arsonistcook.beerstock.service.BeerReadModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional durability for the in-memory database ({@code beerstock.journal.enabled}). Every
+ * recorded change is appended to a {@link WriteAheadLog} before the request returns, and a
+ * {@link BeerSnapshotFile} of the read model is written periodically so the log stays short.
+ * On start, before the web server accepts requests, the snapshot is mapped into memory and loaded
+ * together with the log tail into the database, and the change feed continues after the last
+ * restored sequence.
+ */
+@Slf4j
+@Component
+public class BeerJournal implements SmartLifecycle, MeterBinder {
+
+    private static final String SNAPSHOT_FILE = "beers.snapshot";
+    private static final int RESTORE_BATCH_SIZE = 1000;
+    private static final String RESTORE_MERGE = "MERGE INTO beer (id, name, brand, max, quantity, type, deleted_at) KEY (id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, NULL)";
+    private static final String RESTORE_DELETE = "DELETE FROM beer WHERE id = ?";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final DataSource dataSource;
+    private final BeerChangeFeed beerChangeFeed;
+    private final BeerReadModel beerReadModel;
+    private final WriteAheadLog writeAheadLog;
+
+    private volatile boolean running;
+    private volatile long restoreMillis;
+    private volatile long restoredBeers;
+    private volatile Timer appendTimer;
+
+    @Autowired
+    public BeerJournal(@Value("${beerstock.journal.enabled:false}") boolean enabled,
+                       @Value("${beerstock.journal.directory:./data/journal}") String directory,
+                       @Value("${beerstock.journal.fsync:true}") boolean fsync,
+                       DataSource dataSource,
+                       BeerChangeFeed beerChangeFeed,
+                       BeerReadModel beerReadModel) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.dataSource = dataSource;
+        this.beerChangeFeed = beerChangeFeed;
+        this.beerReadModel = beerReadModel;
+        this.writeAheadLog = new WriteAheadLog(this.directory, fsync);
+    }
+
+    public void append(List<BeerChangeDTO> changes) {
+        if (!running) {
+            return;
+        }
+        long start = System.nanoTime();
+        writeAheadLog.append(changes);
+        Timer timer = appendTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.journal.snapshot-interval-ms:300000}",
+            initialDelayString = "${beerstock.journal.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!running || !beerReadModel.isReady()) {
+            return;
+        }
+        try {
+            long closedSegment = writeAheadLog.roll();
+            // the closed segment can only go once the read model shows every change in it
+            if (!beerReadModel.awaitSequence(writeAheadLog.maxSequenceOf(closedSegment))) {
+                log.warn("Beer read model is behind the write-ahead log, snapshot skipped and segment {} kept", closedSegment);
+                return;
+            }
+            long sequence = beerReadModel.watermark();
+            List<BeerDTO> beers = beerReadModel.findAll();
+            long start = System.nanoTime();
+            BeerSnapshotFile.write(directory.resolve(SNAPSHOT_FILE), sequence, beers);
+            writeAheadLog.deleteSegmentsUpTo(sequence);
+            log.info("Wrote snapshot of {} beers at sequence {} in {} ms",
+                    beers.size(), sequence, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            log.error("Could not write beer snapshot, the write-ahead log keeps growing", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            long lastSequence = restore();
+            beerChangeFeed.resumeAt(lastSequence);
+            writeAheadLog.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not restore the beer catalog from " + directory, e);
+        }
+        restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        running = true;
+        log.info("Restored {} beers from {} in {} ms", restoredBeers, directory, restoreMillis);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writeAheadLog.close();
+        } catch (IOException e) {
+            log.error("Could not close the write-ahead log", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // before the event bus (0) and the web server, so nothing is recorded before the restore
+        return -1;
+    }
+
+    public long getRestoreMillis() {
+        return restoreMillis;
+    }
+
+    public long getRestoredBeers() {
+        return restoredBeers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        appendTimer = Timer.builder("beerstock.journal.append")
+                .description("Time until appended changes are durable, including the wait for the group fsync")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("beerstock.journal.changes", writeAheadLog, WriteAheadLog::appends)
+                .register(registry);
+        FunctionCounter.builder("beerstock.journal.fsyncs", writeAheadLog, WriteAheadLog::fsyncs)
+                .description("Group writes; changes divided by fsyncs is the average group size")
+                .register(registry);
+        Gauge.builder("beerstock.journal.restore", this, journal -> journal.restoreMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private long restore() throws IOException, SQLException {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement merge = connection.prepareStatement(RESTORE_MERGE);
+             PreparedStatement delete = connection.prepareStatement(RESTORE_DELETE)) {
+            connection.setAutoCommit(false);
+            RestoreBatch batch = new RestoreBatch(merge, delete);
+
+            long snapshotSequence = 0;
+            if (Files.exists(snapshotFile)) {
+                snapshotSequence = BeerSnapshotFile.read(snapshotFile, batch::merge);
+            }
+            long lastSequence = writeAheadLog.replay(snapshotSequence, change -> {
+                if (change.getType() == BeerChangeType.DELETED) {
+                    batch.delete(change.getBeerId());
+                } else {
+                    batch.merge(change.getBeer());
+                }
+            });
+            batch.flush();
+            restartIdentity(connection);
+            connection.commit();
+            // a beer changed several times in the log tail, or deleted in it, counts once or not at all
+            restoredBeers = countBeers(connection);
+            return lastSequence;
+        } catch (UncheckedSqlException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void restartIdentity(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long nextId;
+            try (var maxId = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM beer")) {
+                maxId.next();
+                nextId = maxId.getLong(1);
+            }
+            statement.execute("ALTER TABLE beer ALTER COLUMN id RESTART WITH " + nextId);
+        }
+    }
+
+    private long countBeers(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             var count = statement.executeQuery("SELECT COUNT(*) FROM beer")) {
+            count.next();
+            return count.getLong(1);
+        }
+    }
+
+    /**
+     * Adds restored rows to JDBC batches; the consumers of the snapshot and log readers cannot throw
+     * checked exceptions, hence the unchecked wrapper.
+     */
+    private static final class RestoreBatch {
+        private final PreparedStatement merge;
+        private final PreparedStatement delete;
+        private int pendingMerges;
+        private int pendingDeletes;
+
+        private RestoreBatch(PreparedStatement merge, PreparedStatement delete) {
+            this.merge = merge;
+            this.delete = delete;
+        }
+
+        void merge(BeerDTO beer) {
+            try {
+                // deletes queued before must run first, a re-created name may depend on them
+                if (pendingDeletes > 0) {
+                    flush();
+                }
+                merge.setLong(1, beer.getId());
+                merge.setString(2, beer.getName());
+                merge.setString(3, beer.getBrand());
+                merge.setInt(4, beer.getMax());
+                merge.setInt(5, beer.getQuantity());
+                merge.setString(6, beer.getType().name());
+                merge.addBatch();
+                if (++pendingMerges == RESTORE_BATCH_SIZE) {
+                    flush();
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSqlException(e);
+            }
+        }
+
+        void delete(Long id) {
+            try {
+                if (pendingMerges > 0) {
+                    flush();
+                }
+                delete.setLong(1, id);
+                delete.addBatch();
+                if (++pendingDeletes == RESTORE_BATCH_SIZE) {
+                    flush();
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSqlException(e);
+            }
+        }
+
+        void flush() {
+            try {
+                if (pendingMerges > 0) {
+                    merge.executeBatch();
+                    pendingMerges = 0;
+                }
+                if (pendingDeletes > 0) {
+                    delete.executeBatch();
+                    pendingDeletes = 0;
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSqlException(e);
+            }
+        }
+    }
+
+    private static final class UncheckedSqlException extends RuntimeException {
+        private UncheckedSqlException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Full copy of the catalog as of a change sequence: a header (magic, version, sequence, count),
+ * the encoded beers and a CRC32C of them. It is written to a temporary file, forced to disk and
+ * renamed over the previous snapshot, so a crash leaves either the old or the new one.
+ */
+public final class BeerSnapshotFile {
+
+    private static final int MAGIC = 0x42454552;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private BeerSnapshotFile() {
+    }
+
+    public static void write(Path file, long sequence, Collection<BeerDTO> beers) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C checksum = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(sequence).putInt(beers.size());
+            for (BeerDTO beer : beers) {
+                byte[] record = BeerCodec.encode(beer);
+                if (buffer.remaining() < record.length) {
+                    drain(channel, buffer);
+                }
+                checksum.update(record);
+                buffer.put(record);
+            }
+            if (buffer.remaining() < Long.BYTES) {
+                drain(channel, buffer);
+            }
+            buffer.putLong(checksum.getValue());
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot into memory and hands every beer to the consumer.
+     *
+     * @return the change sequence the snapshot was taken at
+     * @throws IOException if the file is truncated or its checksum does not match
+     */
+    public static long read(Path file, Consumer<BeerDTO> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES + Long.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a beer snapshot: " + file);
+            }
+            long sequence = buffer.getLong();
+            int count = buffer.getInt();
+
+            ByteBuffer records = buffer.slice().limit(buffer.remaining() - Long.BYTES);
+            CRC32C checksum = new CRC32C();
+            checksum.update(records.duplicate());
+            buffer.position(buffer.limit() - Long.BYTES);
+            if (checksum.getValue() != buffer.getLong()) {
+                throw new IOException("Corrupted beer snapshot: " + file);
+            }
+            for (int i = 0; i < count; i++) {
+                consumer.accept(BeerCodec.decodeBeer(records));
+            }
+            return sequence;
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,333 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of beer changes split into numbered segments. {@link #append} returns once the
+ * changes are on disk; a single flusher thread writes whatever accumulated while the previous
+ * fsync was running, so concurrent writers share one fsync (group commit). Every record is framed
+ * by its length and a CRC32C, and replay stops at the first torn or corrupt record.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_BYTES = Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    // guarded by lock
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private long pendingMaxSequence;
+    private long appendedTicket;
+    private long flushedTicket;
+    private IOException failure;
+    private boolean running;
+
+    // the channel is only touched by the flusher and by roll, both under channelLock
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private final Map<Long, Long> maxSequenceBySegment = new ConcurrentSkipListMap<>();
+    private FileChannel channel;
+    private long segment;
+    private Thread flusher;
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+
+    public WriteAheadLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replays every record with a sequence above {@code afterSequence}, in sequence order. Must be
+     * called before {@link #open()}.
+     *
+     * @return the highest sequence found, or {@code afterSequence} if there is none
+     */
+    public long replay(long afterSequence, Consumer<BeerChangeDTO> consumer) throws IOException {
+        List<BeerChangeDTO> changes = new ArrayList<>();
+        for (Path segmentFile : segmentFiles()) {
+            long maxSequence = 0;
+            try (FileChannel segmentChannel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+                BeerChangeDTO change;
+                while ((change = nextRecord(buffer)) != null) {
+                    maxSequence = Math.max(maxSequence, change.getSequence());
+                    if (change.getSequence() > afterSequence) {
+                        changes.add(change);
+                    }
+                }
+            }
+            maxSequenceBySegment.put(segmentOf(segmentFile), maxSequence);
+        }
+        // appends race between recording a change and writing it, so the files are only roughly ordered
+        changes.sort(Comparator.comparingLong(BeerChangeDTO::getSequence));
+        changes.forEach(consumer);
+        return changes.isEmpty() ? afterSequence : changes.get(changes.size() - 1).getSequence();
+    }
+
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        segment = maxSequenceBySegment.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+        channel = openSegment(segment);
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        flusher = new Thread(this::flushLoop, "beer-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public void append(List<BeerChangeDTO> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ByteBuffer> records = changes.stream()
+                .map(WriteAheadLog::frame)
+                .collect(Collectors.toList());
+        long maxSequence = changes.stream().mapToLong(BeerChangeDTO::getSequence).max().getAsLong();
+
+        lock.lock();
+        try {
+            if (!running || failure != null) {
+                throw new UncheckedIOException(new IOException("Write-ahead log is not accepting writes", failure));
+            }
+            pending.addAll(records);
+            pendingMaxSequence = Math.max(pendingMaxSequence, maxSequence);
+            long ticket = ++appendedTicket;
+            pendingAvailable.signal();
+            while (flushedTicket < ticket && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (flushedTicket < ticket) {
+                throw new UncheckedIOException(failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+        appends.addAndGet(changes.size());
+    }
+
+    /**
+     * Starts a new segment; records appended from now on go there.
+     *
+     * @return the segment that was closed
+     */
+    public long roll() throws IOException {
+        channelLock.lock();
+        try {
+            channel.force(true);
+            channel.close();
+            long closedSegment = segment;
+            maxSequenceBySegment.putIfAbsent(closedSegment, 0L);
+            channel = openSegment(++segment);
+            return closedSegment;
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    public long maxSequenceOf(long closedSegment) {
+        return maxSequenceBySegment.getOrDefault(closedSegment, 0L);
+    }
+
+    /**
+     * Deletes the closed segments whose records are all covered by a snapshot at {@code sequence}.
+     */
+    public void deleteSegmentsUpTo(long sequence) throws IOException {
+        channelLock.lock();
+        try {
+            for (Map.Entry<Long, Long> closedSegment : maxSequenceBySegment.entrySet()) {
+                if (closedSegment.getKey() < segment && closedSegment.getValue() <= sequence) {
+                    Files.deleteIfExists(segmentFile(closedSegment.getKey()));
+                    maxSequenceBySegment.remove(closedSegment.getKey());
+                }
+            }
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    public long appends() {
+        return appends.get();
+    }
+
+    public long fsyncs() {
+        return fsyncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        channelLock.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(true);
+                channel.close();
+            }
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<ByteBuffer> batch;
+            long ticket;
+            long maxSequence;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && running) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                ticket = appendedTicket;
+                maxSequence = pendingMaxSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException writeFailure = write(batch, maxSequence);
+
+            lock.lock();
+            try {
+                if (writeFailure != null) {
+                    failure = writeFailure;
+                    running = false;
+                } else {
+                    flushedTicket = ticket;
+                }
+                flushed.signalAll();
+                if (writeFailure != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private IOException write(List<ByteBuffer> batch, long maxSequence) {
+        channelLock.lock();
+        try {
+            ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+            long remaining = batch.stream().mapToLong(ByteBuffer::remaining).sum();
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            fsyncs.incrementAndGet();
+            maxSequenceBySegment.merge(segment, maxSequence, Math::max);
+            return null;
+        } catch (IOException e) {
+            return e;
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    private FileChannel openSegment(long segmentNumber) throws IOException {
+        return FileChannel.open(segmentFile(segmentNumber),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentFile(long segmentNumber) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentOf(Path segmentFile) {
+        String fileName = segmentFile.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static ByteBuffer frame(BeerChangeDTO change) {
+        byte[] record = BeerCodec.encode(change);
+        CRC32C checksum = new CRC32C();
+        checksum.update(record);
+        return ByteBuffer.allocate(FRAME_BYTES + record.length)
+                .putInt(record.length)
+                .putInt((int) checksum.getValue())
+                .put(record)
+                .flip();
+    }
+
+    private static BeerChangeDTO nextRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int expectedChecksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+        ByteBuffer record = buffer.slice().limit(length);
+        CRC32C checksum = new CRC32C();
+        checksum.update(record.duplicate());
+        if ((int) checksum.getValue() != expectedChecksum) {
+            return null;
+        }
+        buffer.position(buffer.position() + length);
+        return BeerCodec.decodeChange(record);
+    }
+}
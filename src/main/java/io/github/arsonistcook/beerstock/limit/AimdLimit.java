@@ -0,0 +1,94 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit adjusted by additive increase, multiplicative decrease. A request slower than
+ * the target latency means the limit let in more work than the database keeps up with, so the
+ * limit is cut by the backoff ratio; a request on time while the limit is actually in use raises it
+ * by one. Requests over the limit are rejected right away instead of queueing behind the slow ones.
+ * Only a request admitted after the last cut can cut again, so a burst of requests slowed down
+ * together cuts the limit once, not once per request.
+ */
+class AimdLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    // guarded by this; volatile for the lock-free reads in tryAcquire
+    private volatile double limit;
+    // guarded by this
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos, double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot taken by {@link #tryAcquire()} and feeds the request latency, from
+     * {@code startNanos} to {@code endNanos} ({@link System#nanoTime()}), back into the limit.
+     */
+    void release(long startNanos, long endNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (endNanos - startNanos > targetLatencyNanos) {
+                if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreased = true;
+                    lastDecreaseNanos = endNanos;
+                }
+            } else if (current * 2 >= limit) {
+                // only grow while the limit is what holds requests back, not while traffic is light
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Releases the slot taken by {@link #tryAcquire()} of a request whose latency does not reflect
+     * the load (it waits on purpose, or its size varies by orders of magnitude).
+     */
+    void releaseUnsampled() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+}
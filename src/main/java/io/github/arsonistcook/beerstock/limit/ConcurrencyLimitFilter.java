@@ -0,0 +1,125 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import io.github.arsonistcook.beerstock.config.ReadTokenFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds load on the beer API before it reaches {@code BeerController}. Reads and writes get separate
+ * {@link AimdLimit}s, so writes piling up on contended rows cannot starve the cheap reads; a
+ * request over its limit gets an immediate 503 with Retry-After. Change feed long-polls are not
+ * limited at all, and requests that wait on purpose (a read token) or vary in size (the bulk
+ * upsert) take a slot without feeding their latency into the limit.
+ */
+@Component
+// after MutationThrottleFilter, so throttled requests neither take a slot nor feed the latency samples
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+    private static final String BEER_API_PREFIX = "/api/v1/beers";
+    private static final String LOOKUP_SUFFIX = "/lookup";
+    private static final String CHANGES_PATH = BEER_API_PREFIX + "/changes";
+
+    private final boolean enabled;
+    private final AimdLimit readLimit;
+    private final AimdLimit writeLimit;
+    private final String retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitFilter(@Value("${beerstock.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${beerstock.concurrency.min-limit:4}") int minLimit,
+                                  @Value("${beerstock.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${beerstock.concurrency.read.initial-limit:50}") int readInitialLimit,
+                                  @Value("${beerstock.concurrency.read.max-limit:150}") int readMaxLimit,
+                                  @Value("${beerstock.concurrency.read.target-latency-ms:50}") long readTargetLatencyMillis,
+                                  @Value("${beerstock.concurrency.write.initial-limit:20}") int writeInitialLimit,
+                                  @Value("${beerstock.concurrency.write.max-limit:50}") int writeMaxLimit,
+                                  @Value("${beerstock.concurrency.write.target-latency-ms:100}") long writeTargetLatencyMillis,
+                                  @Value("${beerstock.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this(enabled,
+                new AimdLimit(readInitialLimit, minLimit, readMaxLimit, TimeUnit.MILLISECONDS.toNanos(readTargetLatencyMillis), backoffRatio),
+                new AimdLimit(writeInitialLimit, minLimit, writeMaxLimit, TimeUnit.MILLISECONDS.toNanos(writeTargetLatencyMillis), backoffRatio),
+                retryAfterSeconds);
+    }
+
+    ConcurrencyLimitFilter(boolean enabled, AimdLimit readLimit, AimdLimit writeLimit, int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = Integer.toString(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // a long-poll holds its request for up to max-wait-ms and costs nothing meanwhile
+        return !enabled || !request.getRequestURI().startsWith(BEER_API_PREFIX) || request.getRequestURI().equals(CHANGES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AimdLimit limit = isRead(request) ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (isSampled(request)) {
+                limit.release(start, System.nanoTime());
+            } else {
+                limit.releaseUnsampled();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "read", readLimit);
+        bind(registry, "write", writeLimit);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        // the bulk lookup is a POST only because of its body
+        return HttpMethod.GET.matches(request.getMethod()) || request.getRequestURI().endsWith(LOOKUP_SUFFIX);
+    }
+
+    private static boolean isSampled(HttpServletRequest request) {
+        boolean bulkUpsert = HttpMethod.PUT.matches(request.getMethod()) && request.getRequestURI().equals(BEER_API_PREFIX);
+        return request.getHeader(ReadTokenFilter.READ_TOKEN_HEADER) == null && !bulkUpsert;
+    }
+
+    private static void bind(MeterRegistry registry, String kind, AimdLimit limit) {
+        Gauge.builder("beerstock.concurrency.limit", limit, AimdLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("kind", kind)
+                .register(registry);
+        Gauge.builder("beerstock.concurrency.in-flight", limit, AimdLimit::getInFlight)
+                .tag("kind", kind)
+                .register(registry);
+        FunctionCounter.builder("beerstock.concurrency.rejected", limit, AimdLimit::getRejected)
+                .description("Requests shed with 503 because the limit was reached")
+                .tag("kind", kind)
+                .register(registry);
+    }
+}
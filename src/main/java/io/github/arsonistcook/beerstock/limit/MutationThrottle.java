@@ -0,0 +1,102 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link TokenBucketTable} per beer id and one per client for stock increments and decrements,
+ * shared by {@link MutationThrottleFilter} and the gRPC AdjustStock stream so a client cannot get
+ * around its rate by switching transport. A mutation needs a token from both; one throttled on its
+ * beer gets its client token back, so the client's other beers are not charged for it.
+ */
+@Component
+public class MutationThrottle implements MeterBinder {
+    private final boolean enabled;
+    private final TokenBucketTable beerBuckets;
+    private final TokenBucketTable clientBuckets;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public MutationThrottle(@Value("${beerstock.throttle.enabled:true}") boolean enabled,
+                            @Value("${beerstock.throttle.beer.rate-per-second:20}") double beerRatePerSecond,
+                            @Value("${beerstock.throttle.beer.burst:40}") int beerBurst,
+                            @Value("${beerstock.throttle.client.rate-per-second:200}") double clientRatePerSecond,
+                            @Value("${beerstock.throttle.client.burst:400}") int clientBurst,
+                            @Value("${beerstock.throttle.max-buckets:100000}") int maxBuckets,
+                            @Value("${beerstock.throttle.stripes:64}") int stripes,
+                            @Value("${beerstock.throttle.idle-timeout-ms:60000}") long idleTimeoutMillis) {
+        this(enabled,
+                new TokenBucketTable(beerRatePerSecond, beerBurst, maxBuckets, stripes, TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis)),
+                new TokenBucketTable(clientRatePerSecond, clientBurst, maxBuckets, stripes, TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis)),
+                System::nanoTime);
+    }
+
+    MutationThrottle(boolean enabled, TokenBucketTable beerBuckets, TokenBucketTable clientBuckets, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.beerBuckets = beerBuckets;
+        this.clientBuckets = clientBuckets;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for the beer and one for the client.
+     *
+     * @return 0 if the mutation may go ahead, otherwise the nanoseconds until the empty bucket has a token again
+     */
+    public long tryAcquire(Long beerId, String client) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        long clientWaitNanos = clientBuckets.tryAcquire(client, now);
+        if (clientWaitNanos > 0) {
+            return clientWaitNanos;
+        }
+        long beerWaitNanos = beerBuckets.tryAcquire(beerId.toString(), now);
+        if (beerWaitNanos > 0) {
+            clientBuckets.release(client);
+            return beerWaitNanos;
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.throttle.idle-timeout-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        beerBuckets.evictIdle(now);
+        clientBuckets.evictIdle(now);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "beer", beerBuckets);
+        bind(registry, "client", clientBuckets);
+    }
+
+    private static void bind(MeterRegistry registry, String scope, TokenBucketTable buckets) {
+        FunctionCounter.builder("beerstock.throttle.throttled", buckets, TokenBucketTable::getThrottled)
+                .description("Stock mutations rejected because the bucket was empty")
+                .tag("scope", scope)
+                .register(registry);
+        FunctionCounter.builder("beerstock.throttle.evicted", buckets, TokenBucketTable::getEvicted)
+                .description("Buckets dropped for being idle or least recently used in a full stripe")
+                .tag("scope", scope)
+                .register(registry);
+        Gauge.builder("beerstock.throttle.buckets", buckets, TokenBucketTable::size)
+                .tag("scope", scope)
+                .register(registry);
+    }
+}
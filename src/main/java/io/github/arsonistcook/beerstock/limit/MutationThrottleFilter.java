@@ -0,0 +1,103 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.NumberUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limits PATCH /{id}/increment and /{id}/decrement through the {@link MutationThrottle}, so
+ * one integration flooding a single beer can neither hold its row lock all the time nor take the
+ * write capacity the other beers need. A throttled request gets a 429 with the seconds until the
+ * empty bucket refills. Runs before {@link ConcurrencyLimitFilter}, so throttled requests never
+ * take a concurrency slot.
+ * <p>
+ * The beer bucket is keyed on the id the way MVC binds it, so {@code /01/increment} and
+ * {@code /1;x/increment} draw from beer 1's bucket. The client header is only honored from the
+ * configured trusted proxies; anyone else is keyed on their remote address, otherwise a caller
+ * could pick a fresh id per request and never run out of tokens.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MutationThrottleFilter extends OncePerRequestFilter {
+    private static final Pattern STOCK_MUTATION = Pattern.compile("^/api/v1/beers/([^/]+)/(increment|decrement)$");
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final MutationThrottle throttle;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+
+    @Autowired
+    public MutationThrottleFilter(MutationThrottle throttle,
+                                  @Value("${beerstock.throttle.client-header:X-Client-Id}") String clientHeader,
+                                  @Value("${beerstock.throttle.trusted-proxies:}") List<String> trustedProxies) {
+        this(throttle, clientHeader, Set.copyOf(trustedProxies));
+    }
+
+    MutationThrottleFilter(MutationThrottle throttle, String clientHeader, Set<String> trustedProxies) {
+        this.throttle = throttle;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !throttle.isEnabled() || !HttpMethod.PATCH.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Matcher mutation = STOCK_MUTATION.matcher(UrlPathHelper.defaultInstance.getLookupPathForRequest(request));
+        Long beerId = mutation.matches() ? beerIdOf(mutation.group(1)) : null;
+        if (beerId == null) {
+            // not a stock mutation, or an id MVC will answer with 400 without touching a row
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = throttle.tryAcquire(beerId, clientOf(request));
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            // Retry-After only takes whole seconds; rounding down would send the client back too early
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String client = request.getHeader(clientHeader);
+        return client == null || client.isEmpty() ? remoteAddr : client;
+    }
+
+    private static Long beerIdOf(String segment) {
+        try {
+            // the same parsing the Long path variable goes through
+            return NumberUtils.parseNumber(segment, Long.class);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets for an open-ended set of keys (beer ids, clients) in bounded memory. Keys are spread
+ * over lock stripes, each an access-ordered map holding at most its share of the capacity: a new key
+ * in a full stripe evicts the least recently used bucket, and {@link #evictIdle} drops buckets not
+ * used for the idle timeout. A bucket that was evicted or never existed starts full, so forgetting
+ * it only ever errs on the side of letting a request through.
+ */
+class TokenBucketTable {
+    private final double nanosPerToken;
+    private final double burst;
+    private final long idleTimeoutNanos;
+    private final int stripeCapacity;
+    private final Stripe[] stripes;
+
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    TokenBucketTable(double ratePerSecond, int burst, int maxBuckets, int stripes, long idleTimeoutNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        if (stripes < 1 || maxBuckets < stripes) {
+            throw new IllegalArgumentException("Buckets must satisfy 1 <= stripes <= max buckets");
+        }
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        this.burst = burst;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.stripeCapacity = maxBuckets / stripes;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the bucket has one again
+     */
+    long tryAcquire(String key, long nowNanos) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(burst, nowNanos);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.refill(nowNanos);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            throttled.incrementAndGet();
+            return (long) Math.ceil((1 - bucket.tokens) * nanosPerToken);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} for a request that was then rejected for
+     * another reason.
+     */
+    void release(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(burst, bucket.tokens + 1);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void evictIdle(long nowNanos) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                // access order: the least recently used buckets come first
+                Iterator<Bucket> buckets = stripe.buckets.values().iterator();
+                while (buckets.hasNext() && nowNanos - buckets.next().lastRefillNanos >= idleTimeoutNanos) {
+                    buckets.remove();
+                    evicted.incrementAndGet();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    long getThrottled() {
+        return throttled.get();
+    }
+
+    long getEvicted() {
+        return evicted.get();
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                if (size() > stripeCapacity) {
+                    evicted.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(double tokens, long nowNanos) {
+            this.tokens = tokens;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        void refill(long nowNanos) {
+            if (nowNanos > lastRefillNanos) {
+                tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) / nanosPerToken);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+}
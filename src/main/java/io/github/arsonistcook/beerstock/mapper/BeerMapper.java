@@ -2,14 +2,18 @@ package io.github.arsonistcook.beerstock.mapper;
 
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
 import io.github.arsonistcook.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
+@DecoratedWith(TracedBeerMapper.class)
 public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "deletedAt", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
     BeerDTO toDTO(Beer beer);
@@ -0,0 +1,29 @@
+package io.github.arsonistcook.beerstock.mapper;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.trace.TraceSpan;
+import io.github.arsonistcook.beerstock.trace.Tracing;
+
+public abstract class TracedBeerMapper implements BeerMapper {
+
+    private final BeerMapper delegate;
+
+    public TracedBeerMapper(BeerMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Beer toModel(BeerDTO beerDTO) {
+        try (TraceSpan span = Tracing.span("mapper.toModel")) {
+            return delegate.toModel(beerDTO);
+        }
+    }
+
+    @Override
+    public BeerDTO toDTO(Beer beer) {
+        try (TraceSpan span = Tracing.span("mapper.toDTO")) {
+            return delegate.toDTO(beer);
+        }
+    }
+}
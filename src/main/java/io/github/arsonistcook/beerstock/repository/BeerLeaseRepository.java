@@ -0,0 +1,39 @@
+package io.github.arsonistcook.beerstock.repository;
+
+import io.github.arsonistcook.beerstock.entity.BeerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BeerLeaseRepository extends JpaRepository<BeerLease, String> {
+
+    List<BeerLease> findByNameStartingWith(String prefix);
+
+    @Query("select count(l) from BeerLease l where l.name like concat(:prefix, '%') and l.expiresAt > :now")
+    long countLive(@Param("prefix") String prefix, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerLease l set l.owner = :owner, l.ownerUrl = :ownerUrl, l.expiresAt = :expiresAt " +
+            "where l.name = :name and (l.owner = :owner or l.expiresAt <= :now)")
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("ownerUrl") String ownerUrl,
+                @Param("expiresAt") Instant expiresAt,
+                @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update BeerLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from BeerLease l where l.name like concat(:prefix, '%') and l.expiresAt <= :expiredBefore")
+    int deleteExpired(@Param("prefix") String prefix, @Param("expiredBefore") Instant expiredBefore);
+}
@@ -2,10 +2,53 @@ package io.github.arsonistcook.beerstock.repository;
 
 import io.github.arsonistcook.beerstock.entity.Beer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, JpaSpecificationExecutor<Beer>, BeerRepositoryCustom {
 
     Optional<Beer> findByName(String name);
-}
\ No newline at end of file
+
+    List<Beer> findByNameIn(Collection<String> names);
+
+    @Query("select b.name from Beer b")
+    List<String> findAllNames();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = :quantity where b.id = :id and b.deletedAt is null and :quantity >= 0 and :quantity <= b.max")
+    int updateQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // relative, so a concurrent absolute write (setQuantity, upsertByName) is never overwritten with a stale read
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :delta where b.id = :id and b.deletedAt is null and b.quantity + :delta >= 0 and b.quantity + :delta <= b.max")
+    int addQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.deletedAt = CURRENT_TIMESTAMP where b.id = :id and b.deletedAt is null")
+    int softDeleteById(@Param("id") Long id);
+
+    // native, as the entity mapping hides tombstones; each row is {id, name}
+    @Query(value = "select id, name from beer where deleted_at < :cutoff order by id limit :limit", nativeQuery = true)
+    List<Object[]> findTombstonesDeletedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from beer where id in (:ids) and deleted_at is not null", nativeQuery = true)
+    int purgeTombstones(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from beer where name = :name and deleted_at is not null", nativeQuery = true)
+    int purgeTombstoneByName(@Param("name") String name);
+}
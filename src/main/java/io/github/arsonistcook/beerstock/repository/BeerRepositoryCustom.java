@@ -0,0 +1,29 @@
+package io.github.arsonistcook.beerstock.repository;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+public interface BeerRepositoryCustom {
+
+    /**
+     * Inserts or updates the given beers, matched by name, with one MERGE statement per chunk and
+     * all chunks in one transaction. Stock range violations are rejected by the table's check
+     * constraint, which fails the whole call.
+     *
+     * @return the names that were live beers before the call, i.e. the updated ones; the others
+     * were inserted or revived from a tombstone
+     */
+    Set<String> upsertByName(List<Beer> beers);
+
+    /**
+     * Finds the beers matching the specification, selecting only the columns of the given fields;
+     * the other properties of the returned beers are left null.
+     */
+    List<BeerDTO> findFields(Specification<Beer> specification, Sort sort, Set<BeerField> fields);
+}
@@ -0,0 +1,96 @@
+package io.github.arsonistcook.beerstock.repository;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.ProjectedBeerDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BeerRepositoryCustomImpl implements BeerRepositoryCustom {
+    private static final int UPSERT_CHUNK_SIZE = 200;
+    private static final int COLUMNS = 5;
+    // H2 MERGE ... KEY: updates the row with the same name or inserts a new one; a tombstone with the name is revived
+    private static final String MERGE_PREFIX = "MERGE INTO beer (name, brand, max, quantity, type, deleted_at) KEY (name) VALUES ";
+    // locks the live rows the MERGE is about to update, so they cannot be deleted in between
+    private static final String SELECT_LIVE_NAMES = "SELECT name FROM beer WHERE deleted_at IS NULL AND name IN (:names) FOR UPDATE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Set<String> upsertByName(List<Beer> beers) {
+        Set<String> updatedNames = new HashSet<>();
+        for (int from = 0; from < beers.size(); from += UPSERT_CHUNK_SIZE) {
+            List<Beer> chunk = beers.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, beers.size()));
+            updatedNames.addAll(entityManager.createNativeQuery(SELECT_LIVE_NAMES)
+                    .setParameter("names", chunk.stream().map(Beer::getName).collect(Collectors.toList()))
+                    .getResultList());
+            Query merge = entityManager.createNativeQuery(MERGE_PREFIX + rowPlaceholders(chunk.size()));
+            int position = 1;
+            for (Beer beer : chunk) {
+                merge.setParameter(position++, beer.getName());
+                merge.setParameter(position++, beer.getBrand());
+                merge.setParameter(position++, beer.getMax());
+                merge.setParameter(position++, beer.getQuantity());
+                merge.setParameter(position++, beer.getType().name());
+            }
+            merge.executeUpdate();
+        }
+        return updatedNames;
+    }
+
+    @Override
+    public List<BeerDTO> findFields(Specification<Beer> specification, Sort sort, Set<BeerField> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Beer> root = query.from(Beer.class);
+        List<BeerField> selectedFields = new ArrayList<>(fields);
+        query.multiselect(selectedFields.stream()
+                .map(field -> root.get(field.getProperty()))
+                .collect(Collectors.toList()));
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<BeerDTO> beers = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            BeerDTO beer = new ProjectedBeerDTO();
+            for (int column = 0; column < selectedFields.size(); column++) {
+                selectedFields.get(column).set(beer, row.get(column));
+            }
+            beers.add(beer);
+        }
+        return beers;
+    }
+
+    private static String rowPlaceholders(int rows) {
+        return IntStream.range(0, rows)
+                .mapToObj(row -> IntStream.rangeClosed(row * COLUMNS + 1, row * COLUMNS + COLUMNS)
+                        .mapToObj(position -> "?" + position)
+                        .collect(Collectors.joining(", ", "(", ", NULL)")))
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.arsonistcook.beerstock.repository;
+
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates behind the filtered beer listing; {@link #of(BeerFilterDTO)} ANDs together the ones a
+ * filter sets. Type, brand and quantity ranges are covered by the indexes on {@link Beer}.
+ */
+public final class BeerSpecifications {
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String TYPE = "type";
+    private static final String BRAND = "brand";
+    private static final String QUANTITY = "quantity";
+    private static final String MAX = "max";
+
+    private BeerSpecifications() {
+    }
+
+    public static Specification<Beer> of(BeerFilterDTO filter) {
+        Specification<Beer> specification = Specification.where(null);
+        if (filter.getType() != null) {
+            specification = specification.and(hasType(filter.getType()));
+        }
+        if (filter.getBrand() != null) {
+            specification = specification.and(hasBrand(filter.getBrand()));
+        }
+        if (filter.getMinQuantity() != null) {
+            specification = specification.and(quantityAtLeast(filter.getMinQuantity()));
+        }
+        if (filter.getMaxQuantity() != null) {
+            specification = specification.and(quantityAtMost(filter.getMaxQuantity()));
+        }
+        if (filter.getBelowPercentOfMax() != null) {
+            specification = specification.and(belowPercentOfMax(filter.getBelowPercentOfMax()));
+        }
+        return specification;
+    }
+
+    public static Sort sortOf(BeerFilterDTO filter) {
+        if (filter.getSort() == null) {
+            return Sort.by(ID);
+        }
+        String[] sort = filter.getSort().split(",");
+        Sort.Direction direction = sort.length > 1 ? Sort.Direction.fromString(sort[1]) : Sort.Direction.ASC;
+        // the id tie-breaker keeps the order stable between identical calls
+        return Sort.by(direction, sort[0]).and(Sort.by(ID));
+    }
+
+    public static Specification<Beer> hasName(String name) {
+        return (root, query, builder) -> builder.equal(root.get(NAME), name);
+    }
+
+    public static Specification<Beer> hasType(BeerType type) {
+        return (root, query, builder) -> builder.equal(root.get(TYPE), type);
+    }
+
+    public static Specification<Beer> hasBrand(String brand) {
+        return (root, query, builder) -> builder.equal(root.get(BRAND), brand);
+    }
+
+    public static Specification<Beer> quantityAtLeast(int quantity) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(QUANTITY), quantity);
+    }
+
+    public static Specification<Beer> quantityAtMost(int quantity) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get(QUANTITY), quantity);
+    }
+
+    public static Specification<Beer> belowPercentOfMax(int percent) {
+        // quantity * 100 < max * percent, kept in integers so no rounding decides the edge
+        return (root, query, builder) -> builder.lessThan(
+                builder.prod(root.<Integer>get(QUANTITY), 100),
+                builder.prod(root.<Integer>get(MAX), percent));
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.exception.BeerChangeFeedExpiredException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-memory log of every beer mutation, addressed by a monotonically increasing sequence.
+ * Only the last {@code retention} changes are kept; a cursor older than that (or from a previous
+ * process lifetime) can no longer be served incrementally and gets a resync signal instead.
+ * Readers waiting for new changes hold no thread: their page is completed by the next
+ * {@link #record}, or empty once their wait is over.
+ */
+@Component
+public class BeerChangeFeed {
+
+    private final int retention;
+    private final long maxWaitMillis;
+    private final int pageSize;
+
+    private final BeerChangeDTO[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Waiter> waiters = new ArrayList<>();
+    private long lastSequence;
+    // sequences up to this one belong to a previous process lifetime (see resumeAt)
+    private long resumedSequence;
+
+    public BeerChangeFeed(@Value("${beerstock.changes.retention:10000}") int retention,
+                          @Value("${beerstock.changes.max-wait-ms:30000}") long maxWaitMillis,
+                          @Value("${beerstock.changes.page-size:500}") int pageSize) {
+        this.retention = retention;
+        this.maxWaitMillis = maxWaitMillis;
+        this.pageSize = pageSize;
+        this.ring = new BeerChangeDTO[retention];
+    }
+
+    public BeerChangeDTO record(BeerChangeType type, Long beerId, BeerDTO beer) {
+        BeerChangeDTO change;
+        List<Waiter> woken;
+        List<BeerChangesDTO> pages;
+        lock.lock();
+        try {
+            change = new BeerChangeDTO(++lastSequence, type, beerId, beer);
+            ring[slotOf(change.getSequence())] = change;
+            if (waiters.isEmpty()) {
+                return change;
+            }
+            woken = waiters;
+            waiters = new ArrayList<>();
+            pages = new ArrayList<>(woken.size());
+            for (Waiter waiter : woken) {
+                // the retention window cannot move past a waiter in one change, retention is at least one
+                pages.add(pageSince(waiter.since));
+            }
+        } finally {
+            lock.unlock();
+        }
+        // completing runs the readers' callbacks, which must not run under the lock
+        for (int i = 0; i < woken.size(); i++) {
+            woken.get(i).page.complete(pages.get(i));
+        }
+        return change;
+    }
+
+    /**
+     * Continues numbering after the last sequence restored from disk, so sequences stay unique
+     * across restarts. Only valid before the first change is recorded.
+     */
+    public void resumeAt(long sequence) {
+        lock.lock();
+        try {
+            if (lastSequence != resumedSequence) {
+                throw new IllegalStateException("Changes were already recorded in this process");
+            }
+            lastSequence = sequence;
+            resumedSequence = sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the changes after {@code since}. When there are none yet, the returned page completes
+     * with the next recorded change, or empty after {@code waitMillis} (capped at max-wait-ms).
+     */
+    public CompletableFuture<BeerChangesDTO> changesSince(long since, long waitMillis) throws BeerChangeFeedExpiredException {
+        long wait = Math.min(Math.max(waitMillis, 0), maxWaitMillis);
+        Waiter waiter;
+        lock.lock();
+        try {
+            verifyIfIsRetained(since);
+            if (lastSequence > since || wait == 0) {
+                return CompletableFuture.completedFuture(pageSince(since));
+            }
+            waiter = new Waiter(since, new CompletableFuture<>());
+            waiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+        waiter.page.whenComplete((page, e) -> forget(waiter));
+        return waiter.page.completeOnTimeout(new BeerChangesDTO(since, since, List.of()), wait, TimeUnit.MILLISECONDS);
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BeerChangesDTO pageSince(long since) {
+        long until = Math.min(lastSequence, since + pageSize);
+        List<BeerChangeDTO> changes = new ArrayList<>((int) (until - since));
+        for (long sequence = since + 1; sequence <= until; sequence++) {
+            changes.add(ring[slotOf(sequence)]);
+        }
+        return new BeerChangesDTO(since, until, changes);
+    }
+
+    private void forget(Waiter waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void verifyIfIsRetained(long since) throws BeerChangeFeedExpiredException {
+        long oldestSequence = Math.max(resumedSequence + 1, lastSequence - retention + 1);
+        if (since < oldestSequence - 1 || since > lastSequence) {
+            throw new BeerChangeFeedExpiredException(since, oldestSequence, lastSequence);
+        }
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % retention);
+    }
+
+    private static final class Waiter {
+        private final long since;
+        private final CompletableFuture<BeerChangesDTO> page;
+
+        private Waiter(long since, CompletableFuture<BeerChangesDTO> page) {
+            this.since = since;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.event.BeerEvent;
+import io.github.arsonistcook.beerstock.event.BeerEventHandler;
+import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
+import io.github.arsonistcook.beerstock.mapper.BeerMapper;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps exponentially weighted consumption rates per beer, fed by the decrements seen on the event
+ * bus; absolute writes (set quantity, upserts) only move the quantity the next decrement is measured
+ * from, so a restock correction is never counted as consumption. Every update and every projection
+ * is O(1) per beer and answered from memory; the state starts empty at boot, so rates only reflect
+ * consumption since then.
+ */
+@Component
+public class BeerConsumptionTracker implements BeerEventHandler {
+
+    private static final String[] HORIZONS = {"1h", "1d", "7d"};
+    private static final long[] HORIZON_MILLIS = {
+            Duration.ofHours(1).toMillis(),
+            Duration.ofDays(1).toMillis(),
+            Duration.ofDays(7).toMillis()
+    };
+    private static final double MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
+
+    private final BeerRepository beerRepository;
+    private final Clock clock;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final Map<Long, Consumption> consumptionByBeer = new ConcurrentHashMap<>();
+    private final Map<BeerType, Set<Long>> beersByType = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BeerConsumptionTracker(BeerRepository beerRepository) {
+        this(beerRepository, Clock.systemUTC());
+    }
+
+    BeerConsumptionTracker(BeerRepository beerRepository, Clock clock) {
+        this.beerRepository = beerRepository;
+        this.clock = clock;
+    }
+
+    public void load() {
+        long now = clock.millis();
+        beerRepository.findAll().forEach(beer -> consumptionOf(beerMapper.toDTO(beer), now));
+    }
+
+    @Override
+    public void onEvent(BeerEvent event, boolean endOfBatch) {
+        if (event.getType() == BeerChangeType.DELETED) {
+            remove(event.getBeerId());
+        } else {
+            update(event.getBeer(), event.getTimestamp(), event.getOperation() == BeerOperation.DECREMENT);
+        }
+    }
+
+    public BeerConsumptionDTO findById(Long id) throws BeerNotFoundException {
+        return Optional.ofNullable(consumptionByBeer.get(id))
+                .map(consumption -> consumption.toDTO(id, clock.millis()))
+                .orElseThrow(() -> new BeerNotFoundException(id));
+    }
+
+    public List<BeerConsumptionDTO> findByType(BeerType type) {
+        long now = clock.millis();
+        return beersByType.getOrDefault(type, Set.of()).stream()
+                .map(id -> Optional.ofNullable(consumptionByBeer.get(id)).map(consumption -> consumption.toDTO(id, now)))
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    void update(BeerDTO beer, long timestamp, boolean decrement) {
+        Consumption consumption = consumptionOf(beer, timestamp);
+        BeerType previousType = consumption.update(beer, timestamp, decrement);
+        if (previousType != beer.getType()) {
+            unindex(previousType, beer.getId());
+            beersByType.computeIfAbsent(beer.getType(), type -> ConcurrentHashMap.newKeySet()).add(beer.getId());
+        }
+    }
+
+    void remove(Long id) {
+        Consumption consumption = consumptionByBeer.remove(id);
+        if (consumption != null) {
+            unindex(consumption.type, id);
+        }
+    }
+
+    private void unindex(BeerType type, Long id) {
+        Set<Long> ids = beersByType.get(type);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    private Consumption consumptionOf(BeerDTO beer, long timestamp) {
+        return consumptionByBeer.computeIfAbsent(beer.getId(), id -> {
+            beersByType.computeIfAbsent(beer.getType(), type -> ConcurrentHashMap.newKeySet()).add(id);
+            return new Consumption(beer, timestamp);
+        });
+    }
+
+    private static class Consumption {
+        private String name;
+        private BeerType type;
+        private int quantity;
+        private long lastConsumption;
+        // units per millisecond, as of lastConsumption
+        private final double[] rates = new double[HORIZONS.length];
+
+        Consumption(BeerDTO beer, long timestamp) {
+            this.name = beer.getName();
+            this.type = beer.getType();
+            this.quantity = beer.getQuantity();
+            this.lastConsumption = timestamp;
+        }
+
+        synchronized BeerType update(BeerDTO beer, long timestamp, boolean decrement) {
+            int consumed = quantity - beer.getQuantity();
+            if (decrement && consumed > 0) {
+                long elapsed = Math.max(0, timestamp - lastConsumption);
+                for (int i = 0; i < rates.length; i++) {
+                    rates[i] = rates[i] * decay(i, elapsed) + consumed / (double) HORIZON_MILLIS[i];
+                }
+                lastConsumption = Math.max(lastConsumption, timestamp);
+            }
+            BeerType previousType = type;
+            name = beer.getName();
+            type = beer.getType();
+            quantity = beer.getQuantity();
+            return previousType;
+        }
+
+        synchronized BeerConsumptionDTO toDTO(Long beerId, long now) {
+            long elapsed = Math.max(0, now - lastConsumption);
+            Map<String, Double> ratesPerDay = new LinkedHashMap<>();
+            Map<String, Double> daysOfStock = new LinkedHashMap<>();
+            for (int i = 0; i < rates.length; i++) {
+                double ratePerDay = rates[i] * decay(i, elapsed) * MILLIS_PER_DAY;
+                ratesPerDay.put(HORIZONS[i], ratePerDay);
+                daysOfStock.put(HORIZONS[i], ratePerDay > 0 ? quantity / ratePerDay : null);
+            }
+            return new BeerConsumptionDTO(beerId, name, type, quantity, ratesPerDay, daysOfStock);
+        }
+
+        private static double decay(int horizon, long elapsedMillis) {
+            return Math.exp(-(double) elapsedMillis / HORIZON_MILLIS[horizon]);
+        }
+    }
+}
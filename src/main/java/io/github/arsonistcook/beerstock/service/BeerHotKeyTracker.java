@@ -0,0 +1,84 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.HotKeyDTO;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one {@link CountMinSketch} per {@link BeerOperation}, so the ids and names hammered by
+ * each operation can be listed without logging every request. Every sketch is halved on a fixed
+ * interval, which turns the counts into an exponentially decaying window.
+ */
+@Component
+public class BeerHotKeyTracker implements MeterBinder {
+
+    private final int topK;
+    private final Map<BeerOperation, CountMinSketch> sketches = new EnumMap<>(BeerOperation.class);
+    private final Map<BeerOperation, LongAdder> recorded = new EnumMap<>(BeerOperation.class);
+
+    @Autowired
+    public BeerHotKeyTracker(@Value("${beerstock.hot-keys.width:2048}") int width,
+                             @Value("${beerstock.hot-keys.depth:4}") int depth,
+                             @Value("${beerstock.hot-keys.top-k:10}") int topK) {
+        this.topK = topK;
+        for (BeerOperation operation : BeerOperation.values()) {
+            sketches.put(operation, new CountMinSketch(width, depth, topK));
+            recorded.put(operation, new LongAdder());
+        }
+    }
+
+    public void record(BeerOperation operation, Object key) {
+        if (key == null) {
+            return;
+        }
+        sketches.get(operation).add(key);
+        recorded.get(operation).increment();
+    }
+
+    public List<HotKeyDTO> hottest(BeerOperation operation) {
+        return sketches.get(operation).hottest(topK);
+    }
+
+    public Map<BeerOperation, List<HotKeyDTO>> hottest() {
+        Map<BeerOperation, List<HotKeyDTO>> hottest = new LinkedHashMap<>();
+        sketches.forEach((operation, sketch) -> hottest.put(operation, sketch.hottest(topK)));
+        return hottest;
+    }
+
+    @Scheduled(fixedRateString = "${beerstock.hot-keys.decay-interval-ms:60000}",
+            initialDelayString = "${beerstock.hot-keys.decay-interval-ms:60000}")
+    public void decay() {
+        sketches.values().forEach(CountMinSketch::decay);
+    }
+
+    public void clear() {
+        sketches.values().forEach(CountMinSketch::clear);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("beerstock.hot-keys.memory", sketches, sketches -> sketches.values().stream()
+                        .mapToLong(CountMinSketch::memory)
+                        .sum())
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        recorded.forEach((operation, count) -> FunctionCounter.builder("beerstock.hot-keys.recorded", count, LongAdder::sum)
+                .description("Keys recorded into the hot-key sketch")
+                .tag("operation", operation.name())
+                .register(registry));
+    }
+}
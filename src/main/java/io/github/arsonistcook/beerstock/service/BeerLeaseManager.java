@@ -0,0 +1,200 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.entity.BeerLease;
+import io.github.arsonistcook.beerstock.repository.BeerLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the beer id space into a fixed number of partitions and keeps a lease on a fair share of
+ * them in the shared {@code beer_lease} table. Each running instance also heartbeats a member lease,
+ * so the others know how many instances are sharing the partitions. Leases left to expire (crashed
+ * or partitioned instances) are picked up by the survivors on their next renewal.
+ * <p>
+ * Ownership only covers the mutations addressed by a beer id (see BeerLeaseInterceptor, and the
+ * AdjustStock deltas of BeerStockGrpcService); creates and bulk upserts run on any instance, so
+ * state kept by the owner must tolerate those writes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "beerstock.lease.enabled", havingValue = "true")
+public class BeerLeaseManager {
+
+    static final String PARTITION_PREFIX = "partition:";
+    static final String MEMBER_PREFIX = "member:";
+    private static final int EXPIRED_MEMBER_RETENTION_FACTOR = 10;
+
+    private final BeerLeaseRepository beerLeaseRepository;
+    private final Clock clock;
+    private final String instanceId;
+    private final String advertisedUrl;
+    private final int partitions;
+    private final Duration leaseDuration;
+    private final Duration safetyMargin;
+
+    private volatile Map<Integer, Instant> ownedUntil = Map.of();
+    private volatile Map<Integer, BeerLease> partitionLeases = Map.of();
+    private boolean leasesCreated;
+
+    @Autowired
+    public BeerLeaseManager(BeerLeaseRepository beerLeaseRepository,
+                            @Value("${beerstock.lease.instance-id:}") String instanceId,
+                            @Value("${beerstock.lease.advertised-url:}") String advertisedUrl,
+                            @Value("${beerstock.lease.partitions:16}") int partitions,
+                            @Value("${beerstock.lease.duration-ms:15000}") long leaseDurationMillis,
+                            @Value("${beerstock.lease.renew-interval-ms:5000}") long renewIntervalMillis,
+                            @Value("${beerstock.lease.max-clock-skew-ms:1000}") long maxClockSkewMillis) {
+        this(beerLeaseRepository, Clock.systemUTC(), instanceId.isEmpty() ? UUID.randomUUID().toString() : instanceId,
+                advertisedUrl.isEmpty() ? null : advertisedUrl, partitions, Duration.ofMillis(leaseDurationMillis),
+                Duration.ofMillis(renewIntervalMillis + maxClockSkewMillis));
+    }
+
+    BeerLeaseManager(BeerLeaseRepository beerLeaseRepository, Clock clock, String instanceId, String advertisedUrl,
+                     int partitions, Duration leaseDuration, Duration safetyMargin) {
+        if (safetyMargin.compareTo(leaseDuration) >= 0) {
+            throw new IllegalArgumentException("Lease duration must be longer than the renew interval plus the max clock skew");
+        }
+        this.beerLeaseRepository = beerLeaseRepository;
+        this.clock = clock;
+        this.instanceId = instanceId;
+        this.advertisedUrl = advertisedUrl;
+        this.partitions = partitions;
+        this.leaseDuration = leaseDuration;
+        this.safetyMargin = safetyMargin;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public int partitionOf(Long beerId) {
+        return (int) Math.floorMod(beerId, (long) partitions);
+    }
+
+    /**
+     * Ownership ends a safety margin (one renew interval plus the max clock skew) before the lease
+     * expires in the database, so a paused or late renewal stops serving the partition before
+     * another instance can take it over.
+     */
+    public boolean isOwner(Long beerId) {
+        Instant until = ownedUntil.get(partitionOf(beerId));
+        return until != null && clock.instant().isBefore(until.minus(safetyMargin));
+    }
+
+    public Optional<BeerLease> ownerOf(Long beerId) {
+        BeerLease lease = partitionLeases.get(partitionOf(beerId));
+        if (lease == null || lease.getOwner() == null || !clock.instant().isBefore(lease.getExpiresAt())) {
+            return Optional.empty();
+        }
+        return Optional.of(lease);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.lease.renew-interval-ms:5000}")
+    public synchronized void renewLeases() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(leaseDuration);
+        createLeasesIfMissing();
+
+        beerLeaseRepository.acquire(MEMBER_PREFIX + instanceId, instanceId, advertisedUrl, expiresAt, now);
+        beerLeaseRepository.deleteExpired(MEMBER_PREFIX, now.minus(leaseDuration.multipliedBy(EXPIRED_MEMBER_RETENTION_FACTOR)));
+        long liveMembers = Math.max(1, beerLeaseRepository.countLive(MEMBER_PREFIX, now));
+        long fairShare = (partitions + liveMembers - 1) / liveMembers;
+
+        List<BeerLease> leases = beerLeaseRepository.findByNameStartingWith(PARTITION_PREFIX).stream()
+                .sorted(Comparator.comparing(BeerLease::getName))
+                .collect(Collectors.toList());
+        Map<Integer, Instant> owned = new HashMap<>();
+
+        // renew what we already hold first, giving back anything above the fair share so newcomers can take it
+        for (BeerLease lease : leases) {
+            if (!instanceId.equals(lease.getOwner()) || !now.isBefore(lease.getExpiresAt())) {
+                continue;
+            }
+            int partition = partitionOfLease(lease);
+            if (owned.size() < fairShare && beerLeaseRepository.acquire(lease.getName(), instanceId, advertisedUrl, expiresAt, now) == 1) {
+                owned.put(partition, expiresAt);
+            } else {
+                disown(partition);
+                beerLeaseRepository.release(lease.getName(), instanceId, now);
+            }
+        }
+        for (BeerLease lease : leases) {
+            if (owned.size() >= fairShare) {
+                break;
+            }
+            if (now.isBefore(lease.getExpiresAt())) {
+                continue;
+            }
+            if (beerLeaseRepository.acquire(lease.getName(), instanceId, advertisedUrl, expiresAt, now) == 1) {
+                log.info("Instance {} took over beer partition {}", instanceId, lease.getName());
+                owned.put(partitionOfLease(lease), expiresAt);
+            }
+        }
+
+        ownedUntil = Map.copyOf(owned);
+        partitionLeases = beerLeaseRepository.findByNameStartingWith(PARTITION_PREFIX).stream()
+                .collect(Collectors.toUnmodifiableMap(this::partitionOfLease, lease -> lease));
+    }
+
+    @PreDestroy
+    public synchronized void releaseLeases() {
+        Instant now = clock.instant();
+        Map<Integer, Instant> released = ownedUntil;
+        ownedUntil = Map.of();
+        released.keySet().forEach(partition -> beerLeaseRepository.release(PARTITION_PREFIX + partition, instanceId, now));
+        beerLeaseRepository.release(MEMBER_PREFIX + instanceId, instanceId, now);
+    }
+
+    // a released lease can be taken at once, so this instance must stop writing to the partition before it is released
+    private void disown(int partition) {
+        if (!ownedUntil.containsKey(partition)) {
+            return;
+        }
+        Map<Integer, Instant> remaining = new HashMap<>(ownedUntil);
+        remaining.remove(partition);
+        ownedUntil = Map.copyOf(remaining);
+    }
+
+    private void createLeasesIfMissing() {
+        if (leasesCreated) {
+            return;
+        }
+        createLeaseIfMissing(MEMBER_PREFIX + instanceId);
+        for (int partition = 0; partition < partitions; partition++) {
+            createLeaseIfMissing(PARTITION_PREFIX + partition);
+        }
+        leasesCreated = true;
+    }
+
+    private void createLeaseIfMissing(String name) {
+        if (beerLeaseRepository.existsById(name)) {
+            return;
+        }
+        try {
+            beerLeaseRepository.saveAndFlush(new BeerLease(name, null, null, Instant.EPOCH));
+        } catch (DataIntegrityViolationException e) {
+            // another instance created it first
+        }
+    }
+
+    private int partitionOfLease(BeerLease lease) {
+        return Integer.parseInt(lease.getName().substring(PARTITION_PREFIX.length()));
+    }
+}
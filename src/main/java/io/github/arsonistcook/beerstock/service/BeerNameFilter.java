@@ -0,0 +1,138 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counting Bloom filter over the registered beer names. A {@code false} from {@link #mightContain}
+ * means the name is definitely not registered, so the duplicate check can skip the database; the
+ * unique constraint on {@code Beer.name} remains the source of truth for the rare races. Counters
+ * saturate instead of overflowing, and a saturated counter is never decremented again.
+ */
+@Component
+public class BeerNameFilter implements MeterBinder {
+
+    private static final int SATURATED = 0xFF;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final BeerRepository beerRepository;
+    private final int hashes;
+    private final byte[] counters;
+    private final AtomicLong names = new AtomicLong();
+    private final AtomicLong skippedLookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private volatile boolean ready;
+
+    @Autowired
+    public BeerNameFilter(BeerRepository beerRepository,
+                          @Value("${beerstock.name-filter.expected-names:100000}") int expectedNames,
+                          @Value("${beerstock.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.beerRepository = beerRepository;
+        int size = (int) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.counters = new byte[Math.max(size, Long.SIZE)];
+        this.hashes = Math.max(1, (int) Math.round((double) counters.length / expectedNames * Math.log(2)));
+    }
+
+    public void rebuild() {
+        rebuild(beerRepository.findAllNames());
+    }
+
+    public synchronized void rebuild(Collection<String> registeredNames) {
+        Arrays.fill(counters, (byte) 0);
+        names.set(0);
+        registeredNames.forEach(this::add);
+        ready = true;
+    }
+
+    public boolean mightContain(String name) {
+        if (!ready) {
+            return true;
+        }
+        long hash = hash(name);
+        for (int i = 0; i < hashes; i++) {
+            if (counters[indexOf(hash, i)] == 0) {
+                skippedLookups.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void add(String name) {
+        long hash = hash(name);
+        for (int i = 0; i < hashes; i++) {
+            int index = indexOf(hash, i);
+            int count = counters[index] & SATURATED;
+            if (count < SATURATED) {
+                counters[index] = (byte) (count + 1);
+            }
+        }
+        names.incrementAndGet();
+    }
+
+    public synchronized void remove(String name) {
+        long hash = hash(name);
+        for (int i = 0; i < hashes; i++) {
+            int index = indexOf(hash, i);
+            int count = counters[index] & SATURATED;
+            if (count > 0 && count < SATURATED) {
+                counters[index] = (byte) (count - 1);
+            }
+        }
+        names.decrementAndGet();
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * names.get() / counters.length), hashes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("beerstock.name-filter.false-positive-rate.expected", this, BeerNameFilter::expectedFalsePositiveRate)
+                .description("Theoretical false positive rate for the current number of names")
+                .register(registry);
+        Gauge.builder("beerstock.name-filter.memory", counters, counters -> counters.length)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("beerstock.name-filter.names", names, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("beerstock.name-filter.lookups.skipped", skippedLookups, AtomicLong::get)
+                .description("Duplicate-name checks answered without querying the database")
+                .register(registry);
+        FunctionCounter.builder("beerstock.name-filter.false-positives", falsePositives, AtomicLong::get)
+                .description("Names reported as possibly registered that the database did not have")
+                .register(registry);
+    }
+
+    private int indexOf(long hash, int i) {
+        // Kirsch-Mitzenmacher double hashing over the two halves of the 64 bit hash
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return Math.floorMod(combined, counters.length);
+    }
+
+    private static long hash(String name) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,361 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.event.BeerEvent;
+import io.github.arsonistcook.beerstock.event.BeerEventHandler;
+import io.github.arsonistcook.beerstock.mapper.BeerMapper;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Query side of the catalog: a projection of every beer indexed by id, name and type. The indexes
+ * are never changed once published: each event bus batch is applied at its end to a copy of the
+ * current ones, which then replaces them through a volatile field. Readers never lock and see either
+ * every change of a batch (a whole upsert) or none of them; the copy costs O(catalog) per batch,
+ * which the bus amortizes by batching more under load. The projection is at least at change feed
+ * sequence {@link #watermark()}: every change up to it is visible. Sequences arriving
+ * out of order across bus shards are held back until the gap closes; a gap older than
+ * {@code beerstock.read-model.max-staleness-ms} (a dropped event) triggers a reload from the
+ * repository, which bounds the staleness.
+ * <p>
+ * The model only sees the writes of this process. With {@code beerstock.lease.enabled} other
+ * instances write to the same database, so it is still maintained (the journal snapshots it)
+ * but does not serve reads.
+ */
+@Slf4j
+@Component
+public class BeerReadModel implements BeerEventHandler, MeterBinder {
+
+    private final BeerRepository beerRepository;
+    private final BeerChangeFeed beerChangeFeed;
+    private final Clock clock;
+    private final long maxWaitNanos;
+    private final long maxStalenessMillis;
+    private final boolean servesReads;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    // guarded by lock: changes of the current batch, and applied sequences not yet under the watermark
+    private final Map<Long, BeerChangeDTO> pendingChanges = new LinkedHashMap<>();
+    private final TreeSet<Long> appliedSequences = new TreeSet<>();
+    private long gapSince;
+    // guarded by lock: changes published while a reload queries the repository, replayed on its result
+    private List<BeerChangeDTO> publishedDuringReload;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // written before the watermark, so indexes read after the watermark are at least at it
+    private volatile Indexes indexes = new Indexes();
+    private volatile long watermark;
+    private volatile boolean ready;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong staleReads = new AtomicLong();
+
+    @Autowired
+    public BeerReadModel(BeerRepository beerRepository,
+                         BeerChangeFeed beerChangeFeed,
+                         @Value("${beerstock.read-model.max-wait-ms:1000}") long maxWaitMillis,
+                         @Value("${beerstock.read-model.max-staleness-ms:5000}") long maxStalenessMillis,
+                         @Value("${beerstock.lease.enabled:false}") boolean leaseEnabled) {
+        this(beerRepository, beerChangeFeed, Clock.systemUTC(), maxWaitMillis, maxStalenessMillis, !leaseEnabled);
+    }
+
+    BeerReadModel(BeerRepository beerRepository, BeerChangeFeed beerChangeFeed, Clock clock,
+                  long maxWaitMillis, long maxStalenessMillis, boolean servesReads) {
+        this.beerRepository = beerRepository;
+        this.beerChangeFeed = beerChangeFeed;
+        this.clock = clock;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.servesReads = servesReads;
+    }
+
+    /**
+     * Replaces the indexes with the repository content. The query runs without the lock, so
+     * changes keep being applied and read tokens served meanwhile; the ones published during the
+     * query are replayed on its result before it replaces the indexes.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            long loadedSequence;
+            lock.lock();
+            try {
+                // changes up to this sequence were committed before the query below starts
+                loadedSequence = beerChangeFeed.lastSequence();
+                publishedDuringReload = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            Indexes loaded = null;
+            try {
+                Indexes result = new Indexes();
+                beerRepository.findAll().forEach(beer -> result.put(beer.getId(), beerMapper.toDTO(beer)));
+                loaded = result;
+            } finally {
+                lock.lock();
+                try {
+                    replayOn(loaded, loadedSequence);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Override
+    public void onEvent(BeerEvent event, boolean endOfBatch) {
+        apply(event.getSequence(), event.getType(), event.getBeerId(), event.getBeer(), endOfBatch);
+    }
+
+    void apply(long sequence, BeerChangeType type, Long beerId, BeerDTO beer, boolean endOfBatch) {
+        lock.lock();
+        try {
+            if (sequence > watermark) {
+                pendingChanges.put(beerId, new BeerChangeDTO(sequence, type, beerId, type == BeerChangeType.DELETED ? null : beer));
+                appliedSequences.add(sequence);
+            }
+            if (endOfBatch) {
+                publish();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.read-model.max-staleness-ms:5000}")
+    public void reloadIfStale() {
+        long oldestGap;
+        lock.lock();
+        try {
+            oldestGap = gapSince;
+        } finally {
+            lock.unlock();
+        }
+        if (ready && oldestGap != 0 && clock.millis() - oldestGap > maxStalenessMillis) {
+            log.warn("Beer read model stuck at sequence {} for more than {} ms, reloading", watermark, maxStalenessMillis);
+            reload();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether reads may be served from the model instead of the repository: it is loaded and no
+     * other instance writes behind its back.
+     */
+    public boolean isServingReads() {
+        return ready && servesReads;
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    /**
+     * Waits, at most {@code beerstock.read-model.max-wait-ms}, until the change with the given
+     * sequence is visible. A false means the caller has to read from the repository instead.
+     */
+    public boolean awaitSequence(long sequence) {
+        if (watermark >= sequence) {
+            return true;
+        }
+        // not recorded by this process (forged, issued by another instance or before a restart): waiting cannot help
+        if (sequence > beerChangeFeed.lastSequence()) {
+            return false;
+        }
+        long remainingNanos = maxWaitNanos;
+        lock.lock();
+        try {
+            while (watermark < sequence && remainingNanos > 0) {
+                try {
+                    remainingNanos = advanced.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (watermark >= sequence) {
+            return true;
+        }
+        staleReads.incrementAndGet();
+        return false;
+    }
+
+    public Optional<BeerDTO> findById(Long id) {
+        return Optional.ofNullable(indexes.byId.get(id));
+    }
+
+    public Optional<BeerDTO> findByName(String name) {
+        return Optional.ofNullable(indexes.byName.get(name));
+    }
+
+    /**
+     * Every beer, ordered by id.
+     */
+    public List<BeerDTO> findAll() {
+        return List.copyOf(indexes.byId.values());
+    }
+
+    public List<BeerDTO> findByType(BeerType type) {
+        return List.copyOf(indexes.byType.get(type).values());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("beerstock.read-model.beers", this, readModel -> readModel.indexes.byId.size())
+                .register(registry);
+        Gauge.builder("beerstock.read-model.lag", this, readModel -> Math.max(0, beerChangeFeed.lastSequence() - readModel.watermark))
+                .description("Changes recorded but not yet visible in the read model")
+                .register(registry);
+        FunctionCounter.builder("beerstock.read-model.reloads", reloads, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("beerstock.read-model.stale-reads", staleReads, AtomicLong::get)
+                .description("Reads that gave up waiting for their read token and went to the repository")
+                .register(registry);
+    }
+
+    private void publish() {
+        if (!pendingChanges.isEmpty()) {
+            Indexes next = new Indexes(indexes);
+            for (BeerChangeDTO change : pendingChanges.values()) {
+                next.put(change.getBeerId(), change.getBeer());
+                if (publishedDuringReload != null) {
+                    publishedDuringReload.add(change);
+                }
+            }
+            pendingChanges.clear();
+            indexes = next;
+        }
+
+        long contiguous = watermark;
+        while (!appliedSequences.isEmpty() && appliedSequences.first() == contiguous + 1) {
+            contiguous = appliedSequences.pollFirst();
+        }
+        if (contiguous != watermark) {
+            watermark = contiguous;
+            advanced.signalAll();
+        }
+        if (appliedSequences.isEmpty()) {
+            gapSince = 0;
+        } else if (gapSince == 0) {
+            gapSince = clock.millis();
+        }
+    }
+
+    private void replayOn(Indexes loaded, long loadedSequence) {
+        List<BeerChangeDTO> published = publishedDuringReload;
+        publishedDuringReload = null;
+        if (loaded == null) {
+            // the query failed, the current indexes stay
+            return;
+        }
+        // anything up to loadedSequence is in the query result already
+        published.stream()
+                .filter(change -> change.getSequence() > loadedSequence)
+                .forEach(change -> loaded.put(change.getBeerId(), change.getBeer()));
+        pendingChanges.values().removeIf(change -> change.getSequence() <= loadedSequence);
+        indexes = loaded;
+
+        watermark = Math.max(watermark, loadedSequence);
+        appliedSequences.headSet(watermark, true).clear();
+        if (appliedSequences.isEmpty()) {
+            gapSince = 0;
+        }
+        ready = true;
+        reloads.incrementAndGet();
+        advanced.signalAll();
+    }
+
+    /**
+     * Built under the model's lock and never changed once assigned to {@link #indexes}, so reads
+     * need no lock.
+     */
+    private static final class Indexes {
+        private final NavigableMap<Long, BeerDTO> byId;
+        private final Map<String, BeerDTO> byName;
+        private final Map<BeerType, NavigableMap<Long, BeerDTO>> byType;
+        // type indexes still shared with the published indexes this copy was made from
+        private final Set<BeerType> sharedTypes;
+
+        private Indexes() {
+            this.byId = new TreeMap<>();
+            this.byName = new HashMap<>();
+            this.byType = new EnumMap<>(BeerType.class);
+            for (BeerType type : BeerType.values()) {
+                byType.put(type, new TreeMap<>());
+            }
+            this.sharedTypes = EnumSet.noneOf(BeerType.class);
+        }
+
+        private Indexes(Indexes published) {
+            this.byId = new TreeMap<>(published.byId);
+            this.byName = new HashMap<>(published.byName);
+            // only the types a batch touches are copied
+            this.byType = new EnumMap<>(published.byType);
+            this.sharedTypes = EnumSet.allOf(BeerType.class);
+        }
+
+        // a null beer removes the id
+        private void put(Long id, BeerDTO beer) {
+            BeerDTO previous = beer == null ? byId.remove(id) : byId.put(id, beer);
+            if (previous != null) {
+                if (beer == null || previous.getType() != beer.getType()) {
+                    typeIndex(previous.getType()).remove(id);
+                }
+                if (beer == null || !previous.getName().equals(beer.getName())) {
+                    byName.computeIfPresent(previous.getName(), (name, current) -> current.getId().equals(id) ? null : current);
+                }
+            }
+            if (beer != null) {
+                typeIndex(beer.getType()).put(id, beer);
+                // a delete and a re-create of the same name can land in either order across shards; the newer id wins
+                byName.merge(beer.getName(), beer, (current, updated) -> current.getId() > updated.getId() ? current : updated);
+            }
+        }
+
+        private NavigableMap<Long, BeerDTO> typeIndex(BeerType type) {
+            if (sharedTypes.remove(type)) {
+                byType.put(type, new TreeMap<>(byType.get(type)));
+            }
+            return byType.get(type);
+        }
+    }
+}
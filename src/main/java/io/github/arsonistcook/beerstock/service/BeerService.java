@@ -1,49 +1,288 @@
 package io.github.arsonistcook.beerstock.service;
 
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
 import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
 import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.event.BeerEventBus;
 import io.github.arsonistcook.beerstock.exception.*;
+import io.github.arsonistcook.beerstock.journal.BeerJournal;
 import io.github.arsonistcook.beerstock.mapper.BeerMapper;
 import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.repository.BeerSpecifications;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
+    // keeps IN lists well below the limits of the usual databases
+    private static final int LOOKUP_CHUNK_SIZE = 200;
+    private static final int WRITE_LOCK_STRIPES = 64;
 
     private final BeerRepository beerRepository;
+    private final BeerChangeFeed beerChangeFeed;
+    private final BeerNameFilter beerNameFilter;
+    private final BeerEventBus beerEventBus;
+    private final BeerConsumptionTracker beerConsumptionTracker;
+    private final BeerHotKeyTracker beerHotKeyTracker;
+    private final BeerReadModel beerReadModel;
+    private final BeerJournal beerJournal;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final BeerWriteLocks writeLocks = new BeerWriteLocks(WRITE_LOCK_STRIPES);
 
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        verifyIfIsAlreadyRegistered(beerDTO.getName());
+        if (beerNameFilter.mightContain(beerDTO.getName())) {
+            verifyIfIsAlreadyRegistered(beerDTO.getName());
+        }
         Beer beer = beerMapper.toModel(beerDTO);
-        Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        Beer savedBeer;
+        try {
+            savedBeer = beerRepository.save(beer);
+        } catch (DataIntegrityViolationException e) {
+            savedBeer = replaceTombstone(beerDTO, e);
+        }
+        beerNameFilter.add(savedBeer.getName());
+        BeerDTO createdBeer = beerMapper.toDTO(savedBeer);
+        // the id is new, so only a client guessing it could have written to the beer in between
+        Lock writeLock = writeLocks.of(createdBeer.getId());
+        writeLock.lock();
+        try {
+            recordChange(BeerChangeType.CREATED, createdBeer.getId(), createdBeer, null);
+        } finally {
+            writeLock.unlock();
+            beerEventBus.flush();
+        }
+        return createdBeer;
     }
 
-    public BeerDTO findByName(String name) throws BeerNotFoundException {
+    public BeerDTO findByName(String name, long readToken, Set<BeerField> fields) throws BeerNotFoundException {
+        beerHotKeyTracker.record(BeerOperation.FIND_BY_NAME, name);
+        if (isReadModelAt(readToken)) {
+            return beerReadModel.findByName(name)
+                    .map(beer -> BeerField.project(beer, fields))
+                    .orElseThrow(() -> new BeerNotFoundException(name));
+        }
+        if (fields.size() < BeerField.ALL.size()) {
+            return beerRepository.findFields(BeerSpecifications.hasName(name), Sort.unsorted(), fields).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new BeerNotFoundException(name));
+        }
         Beer foundBeer = beerRepository.findByName(name)
                 .orElseThrow(() -> new BeerNotFoundException(name));
         return beerMapper.toDTO(foundBeer);
     }
 
-    public List<BeerDTO> listAll() {
+    public List<BeerLookupResultDTO> lookup(BeerLookupDTO beerLookupDTO) {
+        List<Long> ids = Optional.ofNullable(beerLookupDTO.getIds()).orElse(List.of());
+        List<String> names = Optional.ofNullable(beerLookupDTO.getNames()).orElse(List.of());
+        Map<Long, BeerDTO> beersById = findInChunks(ids, beerRepository::findAllById).stream()
+                .collect(Collectors.toMap(BeerDTO::getId, Function.identity()));
+        Map<String, BeerDTO> beersByName = findInChunks(names, beerRepository::findByNameIn).stream()
+                .collect(Collectors.toMap(BeerDTO::getName, Function.identity()));
+
+        List<BeerLookupResultDTO> results = new ArrayList<>(ids.size() + names.size());
+        ids.forEach(id -> results.add(BeerLookupResultDTO.ofId(id, beersById.get(id))));
+        names.forEach(name -> results.add(BeerLookupResultDTO.ofName(name, beersByName.get(name))));
+        return results;
+    }
+
+    public List<BeerDTO> listAll(BeerFilterDTO filter, long readToken, Set<BeerField> fields) {
+        if (fields.size() < BeerField.ALL.size()) {
+            return listFields(filter, readToken, fields);
+        }
+        if (!filter.isEmpty()) {
+            return beerRepository.findAll(BeerSpecifications.of(filter), BeerSpecifications.sortOf(filter))
+                    .stream()
+                    .map(beerMapper::toDTO)
+                    .collect(Collectors.toList());
+        }
+        if (isReadModelAt(readToken)) {
+            return beerReadModel.findAll();
+        }
         return beerRepository.findAll()
                 .stream()
                 .map(beerMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    private List<BeerDTO> listFields(BeerFilterDTO filter, long readToken, Set<BeerField> fields) {
+        if (filter.isEmpty() && isReadModelAt(readToken)) {
+            return beerReadModel.findAll().stream()
+                    .map(beer -> BeerField.project(beer, fields))
+                    .collect(Collectors.toList());
+        }
+        // only the selected columns are read, the unselected ones never leave the database
+        return beerRepository.findFields(BeerSpecifications.of(filter), BeerSpecifications.sortOf(filter), fields);
+    }
+
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        beerHotKeyTracker.record(BeerOperation.DELETE, id);
+        // the tombstone keeps its name, so the name filter is only updated once the row is purged
+        Lock writeLock = writeLocks.of(id);
+        writeLock.lock();
+        try {
+            if (beerRepository.softDeleteById(id) == 0) {
+                throw new BeerNotFoundException(id);
+            }
+            recordChange(BeerChangeType.DELETED, id, null, BeerOperation.DELETE);
+        } finally {
+            writeLock.unlock();
+            beerEventBus.flush();
+        }
+    }
+
+    public CompletableFuture<BeerChangesDTO> listChanges(long since, long waitMillis) throws BeerChangeFeedExpiredException {
+        return beerChangeFeed.changesSince(since, waitMillis);
+    }
+
+    public BeerDTO setQuantity(Long id, int quantity) throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        beerHotKeyTracker.record(BeerOperation.SET_QUANTITY, id);
+        if (quantity < 0) {
+            throw new BeerStockNegativeArgumentException();
+        }
+
+        Lock writeLock = writeLocks.of(id);
+        writeLock.lock();
+        try {
+            // the max check happens in the UPDATE itself; only a rejected update needs a read to explain why
+            if (beerRepository.updateQuantity(id, quantity) == 0) {
+                throw new BeerStockExceededException(id, quantity, verifyIfExists(id).getMax());
+            }
+            BeerDTO updatedBeer = beerMapper.toDTO(verifyIfExists(id));
+            recordChange(BeerChangeType.UPDATED, id, updatedBeer, BeerOperation.SET_QUANTITY);
+            return updatedBeer;
+        } finally {
+            writeLock.unlock();
+            beerEventBus.flush();
+        }
+    }
+
+    public List<BeerDTO> upsertByName(BeerUpsertDTO beerUpsertDTO) throws BeerStockInvalidException {
+        Map<String, Beer> beersByName = new LinkedHashMap<>();
+        beerUpsertDTO.getBeers().forEach(beerDTO -> beersByName.put(beerDTO.getName(), beerMapper.toModel(beerDTO)));
+        // the database tells which names were live beers before the MERGE; every other one was inserted or revived
+        Set<String> updatedNames;
+        try {
+            updatedNames = beerRepository.upsertByName(new ArrayList<>(beersByName.values()));
+        } catch (DataIntegrityViolationException e) {
+            throw new BeerStockInvalidException();
+        }
+
+        // the ids are only known once read back, so the read and the records happen under every stripe:
+        // a single write committed after the MERGE is then either in the rows read back or recorded after them
+        writeLocks.lockAll();
+        try {
+            Map<String, BeerDTO> upsertedByName = findInChunks(new ArrayList<>(beersByName.keySet()), beerRepository::findByNameIn).stream()
+                    .collect(Collectors.toMap(BeerDTO::getName, Function.identity()));
+            List<BeerDTO> upsertedBeers = new ArrayList<>(beersByName.size());
+            List<BeerChangeDTO> changes = new ArrayList<>(beersByName.size());
+            for (String name : beersByName.keySet()) {
+                BeerDTO upsertedBeer = upsertedByName.get(name);
+                if (updatedNames.contains(name)) {
+                    changes.add(beerChangeFeed.record(BeerChangeType.UPDATED, upsertedBeer.getId(), upsertedBeer));
+                } else {
+                    beerNameFilter.add(name);
+                    changes.add(beerChangeFeed.record(BeerChangeType.CREATED, upsertedBeer.getId(), upsertedBeer));
+                }
+                upsertedBeers.add(upsertedBeer);
+            }
+            // one journal write for the whole batch
+            beerJournal.append(changes);
+            changes.forEach(change -> beerEventBus.publish(change, null));
+            return upsertedBeers;
+        } finally {
+            writeLocks.unlockAll();
+            beerEventBus.flush();
+        }
+    }
+
+    /**
+     * Sequence of the latest recorded change; a read passing it back sees at least every write
+     * acknowledged before the token was taken.
+     */
+    public long readToken() {
+        return beerChangeFeed.lastSequence();
+    }
+
+    /**
+     * Sequence to resume the change feed from after a listing that starts now. A listing without a
+     * read token is served by the read model as it stands, so the cursor never passes its watermark.
+     */
+    public long changeCursor() {
+        long lastSequence = beerChangeFeed.lastSequence();
+        return beerReadModel.isServingReads() ? Math.min(lastSequence, beerReadModel.watermark()) : lastSequence;
+    }
+
+    public BeerConsumptionDTO findConsumptionById(Long id) throws BeerNotFoundException {
+        return beerConsumptionTracker.findById(id);
+    }
+
+    public List<BeerConsumptionDTO> listConsumptionByType(BeerType type) {
+        return beerConsumptionTracker.findByType(type);
+    }
+
+    private boolean isReadModelAt(long readToken) {
+        return beerReadModel.isServingReads() && beerReadModel.awaitSequence(readToken);
+    }
+
+    private Beer replaceTombstone(BeerDTO beerDTO, DataIntegrityViolationException violation) throws BeerAlreadyRegisteredException {
+        // only a taken name can be a tombstone's; any other violation is not ours to explain
+        if (!violatesUniqueName(violation)) {
+            throw violation;
+        }
+        // the unique name may still be held by a deleted beer the purger has not removed yet
+        if (beerRepository.purgeTombstoneByName(beerDTO.getName()) == 0) {
+            throw new BeerAlreadyRegisteredException(beerDTO.getName());
+        }
+        beerNameFilter.remove(beerDTO.getName());
+        try {
+            return beerRepository.save(beerMapper.toModel(beerDTO));
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesUniqueName(e)) {
+                throw e;
+            }
+            // another request took the name between the purge and the save
+            throw new BeerAlreadyRegisteredException(beerDTO.getName());
+        }
+    }
+
+    private static boolean violatesUniqueName(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                // the dialect extracts the name from the driver message, e.g. H2's "PUBLIC.UK_BEER_NAME_INDEX_2 ON ..."
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(Beer.NAME_CONSTRAINT);
+            }
+        }
+        return false;
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -51,6 +290,7 @@ public class BeerService {
         if (optSavedBeer.isPresent()) {
             throw new BeerAlreadyRegisteredException(name);
         }
+        beerNameFilter.recordFalsePositive();
     }
 
     private Beer verifyIfExists(Long id) throws BeerNotFoundException {
@@ -58,38 +298,69 @@ public class BeerService {
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
+    private <K> List<BeerDTO> findInChunks(List<K> keys, Function<List<K>, List<Beer>> finder) {
+        List<K> distinctKeys = keys.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<BeerDTO> foundBeers = new ArrayList<>(distinctKeys.size());
+        for (int from = 0; from < distinctKeys.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<K> chunk = distinctKeys.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinctKeys.size()));
+            finder.apply(chunk).forEach(beer -> foundBeers.add(beerMapper.toDTO(beer)));
+        }
+        return foundBeers;
+    }
+
+    // callers hold the write lock of the beer, from the database write until here; publishing never
+    // waits for the event ring, callers flush it once the lock is released
+    private void recordChange(BeerChangeType type, Long id, BeerDTO beer, BeerOperation operation) {
+        BeerChangeDTO change = beerChangeFeed.record(type, id, beer);
+        beerJournal.append(Collections.singletonList(change));
+        beerEventBus.publish(change, operation);
+    }
+
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        beerHotKeyTracker.record(BeerOperation.INCREMENT, id);
         if(quantityToIncrement < 0 ){
             throw new BeerStockNegativeArgumentException();
         }
 
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-
-            beerToIncrementStock.setQuantity(beerToIncrementStock.getQuantity() + quantityToIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-
-            return beerMapper.toDTO(incrementedBeerStock);
+        Lock writeLock = writeLocks.of(id);
+        writeLock.lock();
+        try {
+            // the max check happens in the UPDATE itself; only a rejected update needs a read to explain why
+            if (beerRepository.addQuantity(id, quantityToIncrement) == 0) {
+                verifyIfExists(id);
+                throw new BeerStockExceededException(id, quantityToIncrement);
+            }
+            BeerDTO incrementedBeer = beerMapper.toDTO(verifyIfExists(id));
+            recordChange(BeerChangeType.UPDATED, id, incrementedBeer, BeerOperation.INCREMENT);
+            return incrementedBeer;
+        } finally {
+            writeLock.unlock();
+            beerEventBus.flush();
         }
-        throw new BeerStockExceededException(id, quantityToIncrement);
     }
 
     public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockNegativeArgumentException, BeerStockMinimumException {
+        beerHotKeyTracker.record(BeerOperation.DECREMENT, id);
         if(quantityToDecrement < 0){
             throw new BeerStockNegativeArgumentException();
         }
 
-        Beer beerToDecrementStock = verifyIfExists(id);
-        int quantityAfterDecrement = beerToDecrementStock.getQuantity() - quantityToDecrement;
-
-        if (quantityAfterDecrement >= 0 ){
-            beerToDecrementStock.setQuantity(beerToDecrementStock.getQuantity() - quantityToDecrement);
-            Beer decrementedBeer = beerRepository.save(beerToDecrementStock);
-            return beerMapper.toDTO(decrementedBeer);
+        Lock writeLock = writeLocks.of(id);
+        writeLock.lock();
+        try {
+            if (beerRepository.addQuantity(id, -quantityToDecrement) == 0) {
+                verifyIfExists(id);
+                throw new BeerStockMinimumException(id);
+            }
+            BeerDTO decrementedBeer = beerMapper.toDTO(verifyIfExists(id));
+            recordChange(BeerChangeType.UPDATED, id, decrementedBeer, BeerOperation.DECREMENT);
+            return decrementedBeer;
+        } finally {
+            writeLock.unlock();
+            beerEventBus.flush();
         }
-
-        throw new BeerStockMinimumException(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Hard-deletes beers soft-deleted longer than {@code beerstock.tombstones.retention-ms} ago. Rows
+ * go in batches of {@code beerstock.tombstones.batch-size}, each in its own short transaction, and
+ * a run stops after {@code beerstock.tombstones.max-batches} so a wave of deletes is spread over
+ * several runs instead of holding locks on the table.
+ */
+@Slf4j
+@Component
+public class BeerTombstonePurger implements MeterBinder {
+
+    private final BeerRepository beerRepository;
+    private final BeerNameFilter beerNameFilter;
+    private final Clock clock;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatches;
+    private final AtomicLong purged = new AtomicLong();
+
+    @Autowired
+    public BeerTombstonePurger(BeerRepository beerRepository,
+                               BeerNameFilter beerNameFilter,
+                               @Value("${beerstock.tombstones.retention-ms:86400000}") long retentionMillis,
+                               @Value("${beerstock.tombstones.batch-size:500}") int batchSize,
+                               @Value("${beerstock.tombstones.max-batches:20}") int maxBatches) {
+        this(beerRepository, beerNameFilter, Clock.systemUTC(), Duration.ofMillis(retentionMillis), batchSize, maxBatches);
+    }
+
+    BeerTombstonePurger(BeerRepository beerRepository, BeerNameFilter beerNameFilter, Clock clock,
+                        Duration retention, int batchSize, int maxBatches) {
+        this.beerRepository = beerRepository;
+        this.beerNameFilter = beerNameFilter;
+        this.clock = clock;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.tombstones.purge-interval-ms:60000}")
+    public int purge() {
+        Instant cutoff = clock.instant().minus(retention);
+        int purgedInRun = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Object[]> tombstones = beerRepository.findTombstonesDeletedBefore(cutoff, batchSize);
+            if (tombstones.isEmpty()) {
+                break;
+            }
+            List<Long> ids = tombstones.stream()
+                    .map(tombstone -> ((Number) tombstone[0]).longValue())
+                    .collect(Collectors.toList());
+            int purgedInBatch = beerRepository.purgeTombstones(ids);
+            purgedInRun += purgedInBatch;
+            // a tombstone purged meanwhile (its name re-registered) had its name removed already, and removing
+            // it twice would also drop counters shared with live names; keeping the batch's names only costs
+            // false positives until the next rebuild
+            if (purgedInBatch == ids.size()) {
+                tombstones.forEach(tombstone -> beerNameFilter.remove((String) tombstone[1]));
+            }
+            if (tombstones.size() < batchSize) {
+                break;
+            }
+        }
+        if (purgedInRun > 0) {
+            purged.addAndGet(purgedInRun);
+            log.info("Purged {} beer tombstones deleted before {}", purgedInRun, cutoff);
+        }
+        return purgedInRun;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("beerstock.tombstones.purged", purged, AtomicLong::get)
+                .description("Soft-deleted beers removed for good")
+                .register(registry);
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.arsonistcook.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.mapper.BeerMapper;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the in-memory structures of the catalog once the application is ready, then runs the hot
+ * paths a number of times so query plans, prepared statements, the mapper, validation metadata,
+ * JSON serializers and the JIT are warm before the first request. Reports DOWN until then, and is
+ * part of the readiness health group, so no traffic is routed to a cold instance.
+ */
+@Slf4j
+@Component
+public class BeerWarmUp implements HealthIndicator, MeterBinder {
+    // no real beer has this brand, so the filtered listings only ever see the throwaway row
+    private static final String WARM_UP_BRAND = "beerstock-warm-up";
+    private static final BeerFilterDTO WARM_UP_FILTER = BeerFilterDTO.builder()
+            .brand(WARM_UP_BRAND).minQuantity(0).sort("quantity,desc").build();
+
+    private final BeerNameFilter beerNameFilter;
+    private final BeerReadModel beerReadModel;
+    private final BeerConsumptionTracker beerConsumptionTracker;
+    private final BeerRepository beerRepository;
+    private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int iterations;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private volatile boolean warm;
+    private volatile long durationMillis = -1;
+
+    @Autowired
+    public BeerWarmUp(BeerNameFilter beerNameFilter,
+                      BeerReadModel beerReadModel,
+                      BeerConsumptionTracker beerConsumptionTracker,
+                      BeerRepository beerRepository,
+                      BeerService beerService,
+                      ObjectMapper objectMapper,
+                      Validator validator,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${beerstock.warm-up.enabled:true}") boolean enabled,
+                      @Value("${beerstock.warm-up.iterations:200}") int iterations) {
+        this.beerNameFilter = beerNameFilter;
+        this.beerReadModel = beerReadModel;
+        this.beerConsumptionTracker = beerConsumptionTracker;
+        this.beerRepository = beerRepository;
+        this.beerService = beerService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.iterations = iterations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        beerNameFilter.rebuild();
+        beerReadModel.reload();
+        beerConsumptionTracker.load();
+        if (enabled) {
+            for (int i = 0; i < iterations; i++) {
+                exercisePersistence();
+                exerciseSerialization();
+            }
+        }
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        warm = true;
+        log.info("Warm-up finished in {} ms ({} iterations)", durationMillis, enabled ? iterations : 0);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = warm ? Health.up() : Health.outOfService();
+        return health.withDetail("durationMs", durationMillis).build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("beerstock.warm-up.duration", this, warmUp -> warmUp.durationMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * Runs the repository queries behind the read and write endpoints inside a transaction that is
+     * always rolled back. Writes go to the repository rather than {@link BeerService}: the change
+     * feed, journal and event bus the service publishes to are not part of the transaction.
+     */
+    private void exercisePersistence() {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            String name = "warm-up-" + UUID.randomUUID();
+            Beer beer = beerRepository.save(new Beer(null, name, WARM_UP_BRAND, 100, 10, BeerType.LAGER, null));
+            beerRepository.updateQuantity(beer.getId(), 20);
+            beerRepository.upsertByName(List.of(new Beer(null, name, WARM_UP_BRAND, 100, 30, BeerType.LAGER, null)));
+            beerRepository.findByName(name).map(beerMapper::toDTO);
+            beerService.lookup(new BeerLookupDTO(List.of(beer.getId()), List.of(name)));
+            beerService.listAll(WARM_UP_FILTER, 0, BeerField.ALL);
+            beerService.listAll(WARM_UP_FILTER, 0, EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY));
+            // lookups only: a listing of the read model copies the whole catalog
+            beerReadModel.findById(beer.getId());
+            beerReadModel.findByName(name);
+            beerRepository.softDeleteById(beer.getId());
+        });
+    }
+
+    private void exerciseSerialization() {
+        try {
+            BeerDTO beerDTO = new BeerDTO(1L, "Warm-up", "Warm-up", 100, 10, BeerType.LAGER);
+            validator.validate(beerDTO);
+            byte[] beers = objectMapper.writeValueAsBytes(List.of(beerDTO, beerMapper.toDTO(beerMapper.toModel(beerDTO))));
+            objectMapper.readValue(objectMapper.writeValueAsBytes(beerDTO), BeerDTO.class);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(new QuantityDTO(1)), QuantityDTO.class);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(new StockQuantityDTO(1)), StockQuantityDTO.class);
+            objectMapper.readTree(beers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.arsonistcook.beerstock.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks that keep the change feed in commit order per beer. A mutation holds the stripe of
+ * its beer from the database write until its change is recorded, so two writes to one beer cannot
+ * be recorded in the opposite order of their commits. Bulk writes take every stripe, always in
+ * stripe order; single writes only ever hold one, so the two cannot deadlock.
+ */
+class BeerWriteLocks {
+    private final ReentrantLock[] stripes;
+
+    BeerWriteLocks(int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock of(Long beerId) {
+        return stripes[(int) Math.floorMod(beerId, (long) stripes.length)];
+    }
+
+    void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.HotKeyDTO;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed-memory frequency sketch with a bounded set of heavy-hitter candidates. Counters are
+ * incremented with CAS only, so recording never blocks; estimates may overcount by collisions
+ * but never undercount. {@link #decay()} halves every counter, so older traffic fades away.
+ */
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final AtomicLongArray counters;
+    // twice the requested top-K, so keys near the boundary are not evicted on every update
+    private final Map<Object, Long> candidates = new ConcurrentHashMap<>();
+    private volatile long threshold;
+
+    CountMinSketch(int width, int depth, int topK) {
+        if (depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be at most " + SEEDS.length);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.capacity = topK * 2;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    void add(Object key) {
+        long hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(indexOf(hash, row)));
+        }
+        if (estimate > threshold || candidates.size() < capacity || candidates.containsKey(key)) {
+            candidates.put(key, estimate);
+            if (candidates.size() > capacity) {
+                evictColdest();
+            }
+        }
+    }
+
+    long estimate(Object key) {
+        long hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(indexOf(hash, row)));
+        }
+        return estimate;
+    }
+
+    List<HotKeyDTO> hottest(int limit) {
+        PriorityQueue<HotKeyDTO> heap = new PriorityQueue<>(Comparator.comparingLong(HotKeyDTO::getEstimatedCount));
+        for (Object key : candidates.keySet()) {
+            long estimate = estimate(key);
+            if (estimate == 0) {
+                continue;
+            }
+            heap.offer(new HotKeyDTO(key, estimate));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        return heap.stream()
+                .sorted(Comparator.comparingLong(HotKeyDTO::getEstimatedCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+        candidates.replaceAll((key, estimate) -> estimate >>> 1);
+        candidates.values().removeIf(estimate -> estimate == 0);
+        threshold >>>= 1;
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        candidates.clear();
+        threshold = 0;
+    }
+
+    long memory() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    private void evictColdest() {
+        // racing evictions may drop one candidate too many, which only costs accuracy at the boundary
+        candidates.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .ifPresent(coldest -> {
+                    candidates.remove(coldest.getKey(), coldest.getValue());
+                    threshold = coldest.getValue();
+                });
+    }
+
+    private int indexOf(long hash, int row) {
+        long mixed = (hash ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        mixed ^= mixed >>> 31;
+        return row * width + (int) ((mixed >>> 1) % width);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spans recorded while serving one sampled request. A trace is only touched by the thread serving
+ * the request until {@link RequestTracer#finish} hands it over to the slow trace buffer.
+ */
+@Getter
+public class RequestTrace {
+
+    private final String method;
+
+    private final String uri;
+
+    private final Instant startedAt;
+
+    @JsonIgnore
+    private final long startNanos;
+
+    private int status;
+
+    private long durationMicros;
+
+    private final List<TraceSpan> spans = new ArrayList<>();
+
+    @JsonIgnore
+    private int depth;
+
+    RequestTrace(String method, String uri, Instant startedAt, long startNanos) {
+        this.method = method;
+        this.uri = uri;
+        this.startedAt = startedAt;
+        this.startNanos = startNanos;
+    }
+
+    TraceSpan open(String stage) {
+        TraceSpan span = new TraceSpan(this, stage, depth++, System.nanoTime());
+        spans.add(span);
+        return span;
+    }
+
+    void closed(TraceSpan span) {
+        depth = span.getDepth();
+    }
+
+    void finish(int status) {
+        this.status = status;
+        this.durationMicros = (System.nanoTime() - startNanos) / 1_000;
+    }
+}
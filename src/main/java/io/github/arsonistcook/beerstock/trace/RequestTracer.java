@@ -0,0 +1,115 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which requests are traced, feeds the span durations of every finished trace into one
+ * histogram per stage and keeps the most recent slow traces in a bounded buffer.
+ */
+@Component
+public class RequestTracer implements MeterBinder {
+
+    private static final String STAGE_TIMER = "beerstock.trace.stage";
+
+    private final Clock clock;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int bufferSize;
+    private final Deque<RequestTrace> slowTraces = new ArrayDeque<>();
+    private final ConcurrentMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final AtomicLong sampled = new AtomicLong();
+    private volatile MeterRegistry registry = Metrics.globalRegistry;
+
+    @Autowired
+    public RequestTracer(@Value("${beerstock.trace.sample-rate:0.1}") double sampleRate,
+                         @Value("${beerstock.trace.slow-threshold-ms:50}") long slowThresholdMillis,
+                         @Value("${beerstock.trace.buffer-size:100}") int bufferSize) {
+        this(Clock.systemUTC(), sampleRate, slowThresholdMillis, bufferSize);
+    }
+
+    RequestTracer(Clock clock, double sampleRate, long slowThresholdMillis, int bufferSize) {
+        this.clock = clock;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.bufferSize = bufferSize;
+    }
+
+    public RequestTrace begin(String method, String uri) {
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return null;
+        }
+        sampled.incrementAndGet();
+        RequestTrace trace = new RequestTrace(method, uri, clock.instant(), System.nanoTime());
+        Tracing.attach(trace);
+        return trace;
+    }
+
+    public void finish(RequestTrace trace, int status) {
+        Tracing.detach();
+        trace.finish(status);
+        for (TraceSpan span : trace.getSpans()) {
+            if (span.getDurationMicros() >= 0) {
+                stageTimer(span.getStage()).record(span.durationNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (TimeUnit.MICROSECONDS.toNanos(trace.getDurationMicros()) >= slowThresholdNanos) {
+            synchronized (slowTraces) {
+                if (slowTraces.size() == bufferSize) {
+                    slowTraces.removeFirst();
+                }
+                slowTraces.addLast(trace);
+            }
+        }
+    }
+
+    public List<RequestTrace> slowTraces() {
+        synchronized (slowTraces) {
+            List<RequestTrace> traces = new ArrayList<>(slowTraces);
+            // most recent first
+            Collections.reverse(traces);
+            return traces;
+        }
+    }
+
+    public void clear() {
+        synchronized (slowTraces) {
+            slowTraces.clear();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        stageTimers.clear();
+        FunctionCounter.builder("beerstock.trace.sampled", sampled, AtomicLong::get)
+                .description("Requests traced since startup")
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, name -> Timer.builder(STAGE_TIMER)
+                .description("Time spent per stage of sampled requests")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import lombok.Getter;
+
+/**
+ * One timed stage of a {@link RequestTrace}. Closing the span stops its clock; spans opened while
+ * another is open are nested one level deeper, so the trace reads like a call tree.
+ */
+public class TraceSpan implements AutoCloseable {
+
+    static final TraceSpan NOOP = new TraceSpan(null, null, 0, 0);
+
+    @Getter
+    private final String stage;
+
+    @Getter
+    private final int depth;
+
+    @Getter
+    private final long startMicros;
+
+    @Getter
+    private volatile long durationMicros = -1;
+
+    private final RequestTrace trace;
+
+    private final long startNanos;
+
+    private boolean detached;
+
+    TraceSpan(RequestTrace trace, String stage, int depth, long startNanos) {
+        this.trace = trace;
+        this.stage = stage;
+        this.depth = depth;
+        this.startNanos = startNanos;
+        this.startMicros = trace == null ? 0 : (startNanos - trace.getStartNanos()) / 1_000;
+    }
+
+    long durationNanos() {
+        return durationMicros * 1_000;
+    }
+
+    /**
+     * Leaves the span running for work that completes asynchronously: the spans opened from now on
+     * are no longer nested under it, and {@link #close()} may then be called from the completing thread.
+     */
+    void detach() {
+        if (trace != null && !detached) {
+            detached = true;
+            trace.closed(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (trace != null && durationMicros < 0) {
+            durationMicros = (System.nanoTime() - startNanos) / 1_000;
+            if (!detached) {
+                trace.closed(this);
+            }
+        }
+    }
+}
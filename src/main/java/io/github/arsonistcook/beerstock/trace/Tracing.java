@@ -0,0 +1,35 @@
+package io.github.arsonistcook.beerstock.trace;
+
+/**
+ * Entry point for instrumented code. Opening a span is a thread local read when the current
+ * request is not sampled, so call sites do not need to check anything:
+ * <pre>
+ * try (TraceSpan span = Tracing.span("mapper.toDTO")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    public static TraceSpan span(String stage) {
+        RequestTrace trace = CURRENT.get();
+        return trace == null ? TraceSpan.NOOP : trace.open(stage);
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void attach(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records the controller, service and repository stages. Repository spans are named after the
+ * method, so {@code findById} and {@code save} show up as separate stages. A stage returning a
+ * {@link CompletableFuture} or a {@link DeferredResult} ends when that result completes, not when
+ * the method returns.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Around("within(io.github.arsonistcook.beerstock.controller..*)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, "controller");
+    }
+
+    @Around("within(io.github.arsonistcook.beerstock.service.BeerService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, "service");
+    }
+
+    @Around("execution(public * *(..)) && target(io.github.arsonistcook.beerstock.repository.BeerRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, "repository." + joinPoint.getSignature().getName());
+    }
+
+    private Object proceed(ProceedingJoinPoint joinPoint, String stage) throws Throwable {
+        if (!Tracing.isActive()) {
+            return joinPoint.proceed();
+        }
+        TraceSpan span = Tracing.span(stage);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable throwable) {
+            span.close();
+            throw throwable;
+        }
+        if (result instanceof CompletableFuture) {
+            span.detach();
+            ((CompletableFuture<?>) result).whenComplete((value, throwable) -> span.close());
+        } else if (result instanceof DeferredResult && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+            span.detach();
+            // DeferredResult#onCompletion keeps a single callback, the application's; request interceptors
+            // are completed on the same signal, timeouts and errors included
+            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
+            WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(span, new DeferredResultProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest webRequest, DeferredResult<T> deferredResult) {
+                    span.close();
+                }
+            });
+        } else {
+            span.close();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens a {@link RequestTrace} around sampled API requests; the stages inside are recorded by
+ * {@link TracingAspect}, {@link TracingValidator}, the mapper and the JSON converter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class TracingFilter extends OncePerRequestFilter {
+    private static final String API_PREFIX = "/api/";
+
+    private final RequestTracer requestTracer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace = requestTracer.begin(request.getMethod(), request.getRequestURI());
+        if (trace == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // the asynchronous stages are still running; the trace is finished once the response is
+                Tracing.detach();
+                request.getAsyncContext().addListener(new FinishingListener(trace));
+            } else {
+                requestTracer.finish(trace, response.getStatus());
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private class FinishingListener implements AsyncListener {
+        private final RequestTrace trace;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            requestTracer.finish(trace, ((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // followed by onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // followed by onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // no-op
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Replaces the auto-configured JSON converter to time response serialization as the
+ * {@code serialization} stage.
+ */
+@Component
+public class TracingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TracingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (TraceSpan span = Tracing.span("serialization")) {
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Times the {@code @Valid} checks of request bodies as the {@code validation} stage.
+ */
+public class TracingValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+
+    public TracingValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        try (TraceSpan span = Tracing.span("validation")) {
+            delegate.validate(target, errors);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        try (TraceSpan span = Tracing.span("validation")) {
+            delegate.validate(target, errors, validationHints);
+        }
+    }
+}
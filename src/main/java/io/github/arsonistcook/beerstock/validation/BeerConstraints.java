@@ -0,0 +1,59 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+
+/**
+ * The Bean Validation constraints of the request bodies on the hot write paths, written out by hand:
+ * no reflection, no metadata lookup and no allocation. Each method must accept exactly what the
+ * annotations on its DTO accept; {@code BeerConstraintsTest} checks both the annotations and the
+ * results against Hibernate Validator, so a changed annotation fails the build until it is mirrored
+ * here.
+ */
+public final class BeerConstraints {
+    static final int NAME_MAX_LENGTH = 200;
+    static final int BRAND_MAX_LENGTH = 200;
+    static final int BEER_MAX_STOCK = 500;
+    static final int BEER_MIN_QUANTITY = 0;
+    static final int BEER_MAX_QUANTITY = 100;
+    static final int QUANTITY_MAX = 100;
+    static final int STOCK_QUANTITY_MIN = 0;
+    static final int STOCK_QUANTITY_MAX = 500;
+
+    private BeerConstraints() {
+    }
+
+    public static boolean isValid(BeerDTO beer) {
+        return hasLength(beer.getName(), 1, NAME_MAX_LENGTH)
+                && hasLength(beer.getBrand(), 1, BRAND_MAX_LENGTH)
+                && isAtMost(beer.getMax(), BEER_MAX_STOCK)
+                && isBetween(beer.getQuantity(), BEER_MIN_QUANTITY, BEER_MAX_QUANTITY)
+                && beer.getType() != null
+                // @QuantityWithinMax; both are known not to be null here
+                && beer.getQuantity() <= beer.getMax();
+    }
+
+    public static boolean isValid(QuantityDTO quantity) {
+        return isAtMost(quantity.getQuantity(), QUANTITY_MAX);
+    }
+
+    public static boolean isValid(StockQuantityDTO stockQuantity) {
+        return isBetween(stockQuantity.getQuantity(), STOCK_QUANTITY_MIN, STOCK_QUANTITY_MAX);
+    }
+
+    // @NotNull @Size(min, max): Hibernate Validator counts UTF-16 chars, as String.length does
+    private static boolean hasLength(String value, int min, int max) {
+        return value != null && value.length() >= min && value.length() <= max;
+    }
+
+    // @NotNull @Max(max)
+    private static boolean isAtMost(Integer value, int max) {
+        return value != null && value <= max;
+    }
+
+    // @NotNull @Min(min) @Max(max)
+    private static boolean isBetween(Integer value, int min, int max) {
+        return value != null && value >= min && value <= max;
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Accepts valid {@link BeerDTO}, {@link QuantityDTO} and {@link StockQuantityDTO} bodies through
+ * {@link BeerConstraints} without calling Bean Validation. Anything else, any invalid body and any
+ * validation with groups goes to the delegate, so the errors reported are exactly those of the
+ * {@code @Valid} path.
+ */
+public class FastPathValidator implements SmartValidator {
+
+    private static final Map<Class<?>, Predicate<Object>> FAST_PATHS = Map.of(
+            BeerDTO.class, target -> BeerConstraints.isValid((BeerDTO) target),
+            QuantityDTO.class, target -> BeerConstraints.isValid((QuantityDTO) target),
+            StockQuantityDTO.class, target -> BeerConstraints.isValid((StockQuantityDTO) target));
+
+    private final SmartValidator delegate;
+
+    public FastPathValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        Predicate<Object> fastPath = FAST_PATHS.get(target.getClass());
+        if (fastPath == null || !fastPath.test(target)) {
+            delegate.validate(target, errors);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (validationHints.length > 0) {
+            delegate.validate(target, errors, validationHints);
+        } else {
+            validate(target, errors);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The quantity of a beer must not exceed its max stock, as the check constraint of the beer table
+ * requires. Either value being null is left to their {@code @NotNull}.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = QuantityWithinMaxValidator.class)
+public @interface QuantityWithinMax {
+    String message() default "quantity must not be greater than max";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
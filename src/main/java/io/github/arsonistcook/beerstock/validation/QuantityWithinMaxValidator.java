@@ -0,0 +1,14 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class QuantityWithinMaxValidator implements ConstraintValidator<QuantityWithinMax, BeerDTO> {
+
+    @Override
+    public boolean isValid(BeerDTO beer, ConstraintValidatorContext context) {
+        return beer == null || beer.getQuantity() == null || beer.getMax() == null || beer.getQuantity() <= beer.getMax();
+    }
+}
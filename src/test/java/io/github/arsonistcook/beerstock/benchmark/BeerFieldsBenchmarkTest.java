@@ -0,0 +1,98 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.mapper.BeerMapper;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.repository.BeerSpecifications;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Lists a catalog with and without {@code fields=} and prints the response size and the CPU time
+ * of query plus serialization per request. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class BeerFieldsBenchmarkTest {
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int WARMUP_RUNS = 10;
+    private static final int MEASURED_RUNS = 30;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void sparseFieldsetsShrinkTheResponseAndTheWorkPerRequest() throws Exception {
+        entityManager.createNativeQuery("INSERT INTO beer (name, brand, max, quantity, type) "
+                + "SELECT 'Beer-' || x, 'Brand-' || MOD(x, 1000), 100, MOD(x, 101), 'LAGER' FROM SYSTEM_RANGE(1, ?1)")
+                .setParameter(1, CATALOG_SIZE)
+                .executeUpdate();
+        Specification<Beer> all = BeerSpecifications.of(new BeerFilterDTO());
+        Sort byId = BeerSpecifications.sortOf(new BeerFilterDTO());
+
+        Map<String, Callable<byte[]>> requests = new LinkedHashMap<>();
+        requests.put("all fields", () -> objectMapper.writeValueAsBytes(beerRepository.findAll(all, byId).stream()
+                .map(BeerMapper.INSTANCE::toDTO)
+                .collect(Collectors.toList())));
+        requests.put("id,name,quantity", () -> objectMapper.writeValueAsBytes(
+                beerRepository.findFields(all, byId, EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY))));
+        requests.put("id,quantity", () -> objectMapper.writeValueAsBytes(
+                beerRepository.findFields(all, byId, EnumSet.of(BeerField.ID, BeerField.QUANTITY))));
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Callable<byte[]>> request : requests.entrySet()) {
+            results.put(request.getKey(), measure(request.getValue()));
+        }
+
+        System.out.printf("%-20s%-16s%-16s%n", "fields", "bytes", "cpu (ms)");
+        results.forEach((fields, result) -> System.out.printf("%-20s%-16d%-16.2f%n", fields, result[0], result[1] / 1_000_000.0));
+
+        long[] full = results.get("all fields");
+        long[] sparse = results.get("id,name,quantity");
+        assertThat(sparse[0], is(lessThan(full[0])));
+        assertThat(sparse[1], is(lessThan(full[1])));
+    }
+
+    // {response bytes, median CPU nanoseconds}
+    private long[] measure(Callable<byte[]> request) throws Exception {
+        long[] cpuNanos = new long[MEASURED_RUNS];
+        long bytes = 0;
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long start = threads.getCurrentThreadCpuTime();
+            bytes = request.call().length;
+            long elapsed = threads.getCurrentThreadCpuTime() - start;
+            entityManager.clear();
+            if (run >= 0) {
+                cpuNanos[run] = elapsed;
+            }
+        }
+        Arrays.sort(cpuNanos);
+        return new long[]{bytes, cpuNanos[MEASURED_RUNS / 2]};
+    }
+}
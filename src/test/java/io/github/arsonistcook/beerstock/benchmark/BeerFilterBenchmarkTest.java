@@ -0,0 +1,101 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.repository.BeerSpecifications;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Grows the catalog and times the filtered listing at each size. Selective filters on indexed
+ * columns should cost about the same at every size; "below X% of max" compares two columns, so it
+ * is shown as the full-scan reference. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class BeerFilterBenchmarkTest {
+    private static final int[] CATALOG_SIZES = {10_000, 100_000, 300_000};
+    // the first rows are the only STOUTs and the only "Craft" beers, so these filters match the same rows at every size
+    private static final int SELECTIVE_ROWS = 50;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 50;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void filteredQueriesOnIndexedColumnsStayFlatAsTheCatalogGrows() {
+        Map<String, BeerFilterDTO> filters = new LinkedHashMap<>();
+        filters.put("type", BeerFilterDTO.builder().type(BeerType.STOUT).build());
+        filters.put("brand+quantity", BeerFilterDTO.builder().brand("Craft").maxQuantity(20).build());
+        filters.put("type+quantity sorted", BeerFilterDTO.builder().type(BeerType.STOUT).minQuantity(10).sort("quantity,desc").build());
+        filters.put("below % of max (scan)", BeerFilterDTO.builder().belowPercentOfMax(1).build());
+
+        Map<String, long[]> medianMicros = new LinkedHashMap<>();
+        filters.keySet().forEach(name -> medianMicros.put(name, new long[CATALOG_SIZES.length]));
+        int inserted = 0;
+        for (int size = 0; size < CATALOG_SIZES.length; size++) {
+            insertBeers(inserted + 1, CATALOG_SIZES[size]);
+            inserted = CATALOG_SIZES[size];
+            for (Map.Entry<String, BeerFilterDTO> filter : filters.entrySet()) {
+                medianMicros.get(filter.getKey())[size] = medianMicros(filter.getValue());
+            }
+        }
+
+        System.out.printf("%-24s%s%n", "filter \\ beers", Arrays.toString(CATALOG_SIZES));
+        medianMicros.forEach((name, micros) -> System.out.printf("%-24s%s us%n", name, Arrays.toString(micros)));
+
+        long[] typeMicros = medianMicros.get("type");
+        long[] brandMicros = medianMicros.get("brand+quantity");
+        // 30x more rows, allow 5x (plus a small floor for timer noise) before calling it not flat
+        assertThat(typeMicros[CATALOG_SIZES.length - 1], is(lessThan(Math.max(typeMicros[0] * 5, 2_000L))));
+        assertThat(brandMicros[CATALOG_SIZES.length - 1], is(lessThan(Math.max(brandMicros[0] * 5, 2_000L))));
+    }
+
+    private void insertBeers(int from, int to) {
+        entityManager.createNativeQuery("INSERT INTO beer (name, brand, max, quantity, type) "
+                + "SELECT 'Beer-' || x, "
+                + "CASE WHEN x <= ?3 THEN 'Craft' ELSE 'Brand-' || MOD(x, 1000) END, "
+                + "100, MOD(x, 101), "
+                + "CASE WHEN x <= ?3 THEN 'STOUT' ELSE 'LAGER' END "
+                + "FROM SYSTEM_RANGE(?1, ?2)")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .setParameter(3, SELECTIVE_ROWS)
+                .executeUpdate();
+        entityManager.createNativeQuery("ANALYZE").executeUpdate();
+    }
+
+    private long medianMicros(BeerFilterDTO filter) {
+        long[] runs = new long[MEASURED_RUNS];
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            List<Beer> beers = beerRepository.findAll(BeerSpecifications.of(filter), BeerSpecifications.sortOf(filter));
+            long elapsed = System.nanoTime() - start;
+            entityManager.clear();
+            if (run >= 0) {
+                runs[run] = elapsed;
+            }
+            assertThat(beers, is(not(nullValue())));
+        }
+        Arrays.sort(runs);
+        return TimeUnit.NANOSECONDS.toMicros(runs[MEASURED_RUNS / 2]);
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.journal.BeerJournal;
+import io.github.arsonistcook.beerstock.journal.BeerSnapshotFile;
+import io.github.arsonistcook.beerstock.journal.WriteAheadLog;
+import io.github.arsonistcook.beerstock.service.BeerChangeFeed;
+import io.github.arsonistcook.beerstock.service.BeerReadModel;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Times a restart (mapped snapshot plus write-ahead log tail loaded into the database) at several
+ * catalog sizes, then the latency of journaled writes with and without fsync. Run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+// the journal restores through its own connection and commits, so the test must not hold a transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BeerJournalBenchmarkTest {
+    private static final int[] CATALOG_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int WAL_TAIL = 10_000;
+    private static final int WRITERS = 16;
+    private static final int APPENDS_PER_WRITER = 500;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restartTimeGrowsWithTheCatalogAndNotWithTheLog() throws Exception {
+        System.out.printf("%-12s%-16s%-16s%-16s%n", "beers", "snapshot (ms)", "restore (ms)", "restored beers");
+        for (int size : CATALOG_SIZES) {
+            jdbcTemplate.execute("DELETE FROM beer");
+            Path journalDirectory = Files.createDirectories(directory.resolve("catalog-" + size));
+
+            long start = System.nanoTime();
+            BeerSnapshotFile.write(journalDirectory.resolve("beers.snapshot"), size, beers(size));
+            long snapshotMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            WriteAheadLog writeAheadLog = new WriteAheadLog(journalDirectory, false);
+            writeAheadLog.open();
+            for (long sequence = size + 1; sequence <= size + WAL_TAIL; sequence++) {
+                writeAheadLog.append(List.of(new BeerChangeDTO(sequence, BeerChangeType.UPDATED, sequence - size,
+                        beer(sequence - size, 7))));
+            }
+            writeAheadLog.close();
+
+            BeerJournal beerJournal = journal(journalDirectory, false);
+            beerJournal.start();
+            beerJournal.stop();
+            System.out.printf("%-12d%-16d%-16d%-16d%n", size, snapshotMillis, beerJournal.getRestoreMillis(), beerJournal.getRestoredBeers());
+
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM beer", Long.class), is(equalTo((long) size)));
+            assertThat(beerJournal.getRestoredBeers(), is(equalTo((long) size)));
+            assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM beer WHERE id = 1", Integer.class), is(equalTo(7)));
+        }
+        jdbcTemplate.execute("DELETE FROM beer");
+    }
+
+    @Test
+    void groupCommitKeepsConcurrentWriteLatencyNearOneFsync() throws Exception {
+        System.out.printf("%-10s%-12s%-12s%-12s%-10s%n", "fsync", "p50 (us)", "p99 (us)", "max (us)", "changes/fsync");
+        for (boolean fsync : new boolean[]{false, true}) {
+            WriteAheadLog writeAheadLog = new WriteAheadLog(directory.resolve("fsync-" + fsync), fsync);
+            writeAheadLog.open();
+            long[] latencies = appendConcurrently(writeAheadLog);
+            writeAheadLog.close();
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s%-12d%-12d%-12d%-10.1f%n", fsync,
+                    micros(latencies[latencies.length / 2]),
+                    micros(latencies[latencies.length * 99 / 100]),
+                    micros(latencies[latencies.length - 1]),
+                    (double) writeAheadLog.appends() / writeAheadLog.fsyncs());
+            assertThat(writeAheadLog.appends(), is(equalTo((long) WRITERS * APPENDS_PER_WRITER)));
+        }
+    }
+
+    private long[] appendConcurrently(WriteAheadLog writeAheadLog) throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        long[] latencies = new long[WRITERS * APPENDS_PER_WRITER];
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            Future<?>[] futures = new Future<?>[WRITERS];
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int offset = writer * APPENDS_PER_WRITER;
+                futures[writer] = executor.submit(() -> {
+                    for (int i = 0; i < APPENDS_PER_WRITER; i++) {
+                        long seq = sequence.incrementAndGet();
+                        long start = System.nanoTime();
+                        writeAheadLog.append(List.of(new BeerChangeDTO(seq, BeerChangeType.UPDATED, seq, beer(seq, 1))));
+                        latencies[offset + i] = System.nanoTime() - start;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return latencies;
+    }
+
+    private BeerJournal journal(Path journalDirectory, boolean fsync) {
+        return new BeerJournal(true, journalDirectory.toString(), fsync, dataSource,
+                new BeerChangeFeed(10_000, 0, 500), mock(BeerReadModel.class));
+    }
+
+    // generated on the fly so a million beers do not sit on the heap next to the database
+    private static List<BeerDTO> beers(int size) {
+        return new AbstractList<>() {
+            @Override
+            public BeerDTO get(int index) {
+                return beer(index + 1, 10);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static BeerDTO beer(long id, int quantity) {
+        return new BeerDTO(id, "Beer-" + id, "Brand-" + id % 1000, 100, quantity, BeerType.values()[(int) (id % BeerType.values().length)]);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
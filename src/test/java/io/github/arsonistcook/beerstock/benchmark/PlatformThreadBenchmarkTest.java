@@ -0,0 +1,15 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {RequestThreadBenchmarkSupport.COMMON_PROPERTIES, "beerstock.virtual-threads.enabled=false"})
+class PlatformThreadBenchmarkTest extends RequestThreadBenchmarkSupport {
+
+    @Override
+    String threadModel() {
+        return "platform";
+    }
+}
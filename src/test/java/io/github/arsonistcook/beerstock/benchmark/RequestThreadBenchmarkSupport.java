@@ -0,0 +1,148 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import io.github.arsonistcook.beerstock.config.ReadTokenFilter;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.exception.BeerAlreadyRegisteredException;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.service.BeerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Drives the running server with many concurrent clients. Each iteration sets the stock of one of a
+ * few hot beers, long-polls the change feed for 100 ms (a request that only waits) and reads four
+ * beers by name. The subclasses run it with the platform-thread pool and with virtual threads; run
+ * both with {@code ./gradlew benchmark} and compare the printed lines.
+ */
+abstract class RequestThreadBenchmarkSupport {
+    static final String COMMON_PROPERTIES = "beerstock.concurrency.enabled=false";
+    private static final int CLIENTS = 1_000;
+    private static final int ITERATIONS = 5;
+    private static final int BEERS = 100;
+    private static final int HOT_BEERS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setup() throws BeerAlreadyRegisteredException {
+        // through the service, so the read model serving the reads sees them
+        for (int i = 1; i <= BEERS; i++) {
+            beerService.createBeer(new BeerDTO(null, "Beer-" + i, "Brand", 100, 50, BeerType.LAGER));
+        }
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM beer");
+    }
+
+    abstract String threadModel();
+
+    @Test
+    void manyConcurrentClientsAreServed() throws Exception {
+        List<Long> ids = beerRepository.findAll().stream().map(Beer::getId).sorted().collect(Collectors.toList());
+        long[] latencies = new long[CLIENTS * ITERATIONS * 6];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int client = 0; client < CLIENTS; client++) {
+                futures.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        long hotId = ids.get(random.nextInt(HOT_BEERS));
+                        HttpResponse<String> put = timed(latencies, next, failures, HttpRequest.newBuilder(uri("/" + hotId + "/quantity"))
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString("{\"quantity\":" + random.nextInt(101) + "}")));
+                        String readToken = put == null ? "0" : put.headers().firstValue(ReadTokenFilter.READ_TOKEN_HEADER).orElse("0");
+                        timed(latencies, next, failures, HttpRequest.newBuilder(uri("/changes?since=" + readToken + "&waitMillis=100")).GET());
+                        for (int read = 0; read < 4; read++) {
+                            timed(latencies, next, failures, HttpRequest.newBuilder(uri("/Beer-" + (random.nextInt(BEERS) + 1))).GET());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long[] measured = Arrays.copyOf(latencies, next.get());
+        Arrays.sort(measured);
+        System.out.printf("%-10s clients=%d requests=%d throughput=%.0f req/s p50=%d ms p99=%d ms max=%d ms failures=%d%n",
+                threadModel(), CLIENTS, measured.length,
+                measured.length / (elapsedNanos / 1e9),
+                millis(measured[measured.length / 2]),
+                millis(measured[measured.length * 99 / 100]),
+                millis(measured[measured.length - 1]),
+                failures.get());
+        assertThat(failures.get(), is(equalTo(0)));
+    }
+
+    private HttpResponse<String> timed(long[] latencies, AtomicInteger next, AtomicInteger failures, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.ofString());
+            latencies[next.getAndIncrement()] = System.nanoTime() - start;
+            if (response.statusCode() >= 400) {
+                failures.incrementAndGet();
+            }
+            return response;
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            return null;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1/beers" + path);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.exception.BeerAlreadyRegisteredException;
+import io.github.arsonistcook.beerstock.grpc.BeerGrpcServer;
+import io.github.arsonistcook.beerstock.grpc.v1.BeerStockGrpc;
+import io.github.arsonistcook.beerstock.grpc.v1.StockDelta;
+import io.github.arsonistcook.beerstock.grpc.v1.StockResult;
+import io.github.arsonistcook.beerstock.grpc.v1.StockStatus;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.service.BeerService;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Sends the same stock deltas through PATCH /{id}/increment and /{id}/decrement, one request at a
+ * time per client as the scanners do today, and through one AdjustStock stream per client, and
+ * prints throughput and per-delta latency of both. Every client alternates +1 and -1 on the same
+ * beer, so no delta fails on the stock limits. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"beerstock.concurrency.enabled=false", "beerstock.throttle.enabled=false",
+                "beerstock.grpc.enabled=true", "beerstock.grpc.port=0"})
+class StockTransportBenchmarkTest {
+    private static final int CLIENTS = 16;
+    private static final int WARMUP_DELTAS = 1_000;
+    private static final int MEASURED_DELTAS = 10_000;
+    private static final int BEERS = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BeerGrpcServer beerGrpcServer;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> ids;
+    private HttpClient httpClient;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setup() throws BeerAlreadyRegisteredException {
+        for (int i = 1; i <= BEERS; i++) {
+            beerService.createBeer(new BeerDTO(null, "Beer-" + i, "Brand", 100, 50, BeerType.LAGER));
+        }
+        ids = beerRepository.findAll().stream().map(Beer::getId).sorted().collect(Collectors.toList());
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        channel = ManagedChannelBuilder.forAddress("localhost", beerGrpcServer.getPort()).usePlaintext().build();
+    }
+
+    @AfterEach
+    void cleanup() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        jdbcTemplate.execute("DELETE FROM beer");
+    }
+
+    @Test
+    void stockDeltasAreAppliedOverPatchRequestsAndStreams() throws Exception {
+        run("rest", WARMUP_DELTAS, this::patch);
+        run("grpc", WARMUP_DELTAS, this::stream);
+
+        long[] rest = run("rest", MEASURED_DELTAS, this::patch);
+        long[] grpc = run("grpc", MEASURED_DELTAS, this::stream);
+
+        System.out.printf("%-6s%-14s%-10s%-10s%-10s%n", "path", "deltas/s", "p50 us", "p99 us", "failures");
+        print("rest", rest);
+        print("grpc", grpc);
+        assertThat(rest[2], is(equalTo(0L)));
+        assertThat(grpc[2], is(equalTo(0L)));
+    }
+
+    // {elapsed nanos, total deltas, failures, latencies...}
+    private long[] run(String path, int deltasPerClient, Client client) throws Exception {
+        long[][] latencies = new long[CLIENTS][deltasPerClient];
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                futures.add(clients.submit(() -> {
+                    client.send(clientIndex, latencies[clientIndex], failures);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long[] result = new long[3 + CLIENTS * deltasPerClient];
+        result[0] = elapsedNanos;
+        result[1] = (long) CLIENTS * deltasPerClient;
+        result[2] = failures.get();
+        for (int c = 0; c < CLIENTS; c++) {
+            System.arraycopy(latencies[c], 0, result, 3 + c * deltasPerClient, deltasPerClient);
+        }
+        Arrays.sort(result, 3, result.length);
+        return result;
+    }
+
+    private void patch(int client, long[] latencies, AtomicInteger failures) {
+        for (int i = 0; i < latencies.length; i++) {
+            String operation = i % 2 == 0 ? "increment" : "decrement";
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/beers/" + beerOf(client, i) + "/" + operation))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400) {
+                    failures.incrementAndGet();
+                }
+            } catch (Exception e) {
+                failures.incrementAndGet();
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+    }
+
+    private void stream(int client, long[] latencies, AtomicInteger failures) throws InterruptedException {
+        long[] sentAt = new long[latencies.length];
+        CountDownLatch done = new CountDownLatch(1);
+        BeerStockGrpc.newStub(channel).adjustStock(new ClientResponseObserver<StockDelta, StockResult>() {
+            private int next;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<StockDelta> deltas) {
+                // only writes while the transport can take more, the client side of the flow control
+                deltas.setOnReadyHandler(() -> {
+                    while (deltas.isReady() && next < latencies.length) {
+                        int i = next++;
+                        sentAt[i] = System.nanoTime();
+                        deltas.onNext(StockDelta.newBuilder()
+                                .setCorrelationId(i)
+                                .setBeerId(beerOf(client, i))
+                                .setQuantity(i % 2 == 0 ? 1 : -1)
+                                .build());
+                        if (next == latencies.length) {
+                            deltas.onCompleted();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(StockResult result) {
+                int i = (int) result.getCorrelationId();
+                latencies[i] = System.nanoTime() - sentAt[i];
+                if (result.getStatus() != StockStatus.OK) {
+                    failures.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failures.incrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+
+    // a +1 and the following -1 hit the same beer, so a stock of 50 never leaves 50 +/- CLIENTS
+    private long beerOf(int client, int delta) {
+        return ids.get((client + CLIENTS * (delta / 2)) % BEERS);
+    }
+
+    private static void print(String path, long[] result) {
+        int count = result.length - 3;
+        System.out.printf("%-6s%-14.0f%-10d%-10d%-10d%n", path,
+                result[1] / (result[0] / 1e9),
+                TimeUnit.NANOSECONDS.toMicros(result[3 + count / 2]),
+                TimeUnit.NANOSECONDS.toMicros(result[3 + count * 99 / 100]),
+                result[2]);
+    }
+
+    @FunctionalInterface
+    private interface Client {
+        void send(int client, long[] latencies, AtomicInteger failures) throws Exception;
+    }
+}
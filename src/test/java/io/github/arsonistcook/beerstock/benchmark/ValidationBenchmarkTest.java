@@ -0,0 +1,72 @@
+package io.github.arsonistcook.beerstock.benchmark;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.validation.FastPathValidator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Validates valid request bodies in a loop, with Bean Validation and through the fast path, and
+ * prints the time and the bytes allocated per validation. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class ValidationBenchmarkTest {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void theFastPathValidatesValidBodiesWithoutAllocating() {
+        LocalValidatorFactoryBean beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+        FastPathValidator fastPathValidator = new FastPathValidator(beanValidator);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        QuantityDTO quantityDTO = new QuantityDTO(10);
+
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("BeerDTO bean validation", measure(beanValidator, beerDTO));
+        results.put("BeerDTO fast path", measure(fastPathValidator, beerDTO));
+        results.put("QuantityDTO bean validation", measure(beanValidator, quantityDTO));
+        results.put("QuantityDTO fast path", measure(fastPathValidator, quantityDTO));
+        beanValidator.close();
+
+        System.out.printf("%-30s%-12s%-12s%n", "validator", "ns/op", "bytes/op");
+        results.forEach((name, result) -> System.out.printf("%-30s%-12.1f%-12.1f%n", name, result[0], result[1]));
+
+        assertThat(results.get("BeerDTO fast path")[0], is(lessThan(results.get("BeerDTO bean validation")[0])));
+        assertThat(results.get("BeerDTO fast path")[1], is(lessThan(1.0)));
+        assertThat(results.get("QuantityDTO fast path")[1], is(lessThan(1.0)));
+    }
+
+    // {nanoseconds per validation, bytes allocated per validation}
+    private double[] measure(SmartValidator validator, Object target) {
+        Errors errors = new BeanPropertyBindingResult(target, "target");
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            validator.validate(target, errors);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            validator.validate(target, errors);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(errors.hasErrors(), is(false));
+        return new double[]{(double) elapsed / MEASURED_ITERATIONS, (double) allocated / MEASURED_ITERATIONS};
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.arsonistcook.beerstock.config;
+
+import io.github.arsonistcook.beerstock.service.BeerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadTokenFilterTest {
+
+    @Mock
+    private BeerService beerService;
+
+    @InjectMocks
+    private ReadTokenFilter readTokenFilter;
+
+    @Test
+    void whenAMutationWritesItsBodyThenTheReadTokenIsSetBeforeTheBody() throws Exception {
+        //Given
+        AtomicReference<String> headerWhenWriting = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.getWriter().write("{\"quantity\":11}");
+                headerWhenWriting.set(res.getHeader(ReadTokenFilter.READ_TOKEN_HEADER));
+            }
+        };
+
+        //When
+        when(beerService.readToken()).thenReturn(7L);
+        readTokenFilter.doFilter(new MockHttpServletRequest("PATCH", "/api/v1/beers/1/increment"), response, new MockFilterChain(controller));
+
+        //Then
+        assertThat(headerWhenWriting.get(), is(equalTo("7")));
+        assertThat(response.getContentAsString(), is(equalTo("{\"quantity\":11}")));
+        verify(beerService, times(1)).readToken();
+    }
+
+    @Test
+    void whenAMutationHasNoBodyThenTheReadTokenIsSetAfterTheChain() throws Exception {
+        //Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                res.setStatus(HttpStatus.NO_CONTENT.value());
+            }
+        };
+
+        //When
+        when(beerService.readToken()).thenReturn(8L);
+        readTokenFilter.doFilter(new MockHttpServletRequest("DELETE", "/api/v1/beers/1"), response, new MockFilterChain(controller));
+
+        //Then
+        assertThat(response.getHeader(ReadTokenFilter.READ_TOKEN_HEADER), is(equalTo("8")));
+    }
+
+    @Test
+    void whenABeerIsReadThenNoReadTokenIsSet() throws Exception {
+        //Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        readTokenFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/beers/Brahma"), response, new MockFilterChain());
+
+        //Then
+        assertThat(response.getHeader(ReadTokenFilter.READ_TOKEN_HEADER), is(nullValue()));
+        verifyNoInteractions(beerService);
+    }
+}
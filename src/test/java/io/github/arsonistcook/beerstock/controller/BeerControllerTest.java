@@ -1,10 +1,24 @@
 package io.github.arsonistcook.beerstock.controller;
 
 import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.config.ReadTokenFilter;
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
 import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.exception.BeerChangeFeedExpiredException;
 import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
 import io.github.arsonistcook.beerstock.exception.BeerStockExceededException;
+import io.github.arsonistcook.beerstock.exception.BeerStockInvalidException;
 import io.github.arsonistcook.beerstock.exception.BeerStockNegativeArgumentException;
 import io.github.arsonistcook.beerstock.service.BeerService;
 import org.assertj.core.util.Lists;
@@ -17,16 +31,25 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static io.github.arsonistcook.beerstock.utils.JSONConvertionUtils.asJSONString;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +60,10 @@ public class BeerControllerTest {
     private static final long INVALID_BEER_ID = 2l;
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_SUBPATH_CHANGES_URL = "/changes";
+    private static final String BEER_API_SUBPATH_CONSUMPTION_URL = "/consumption";
+    private static final String BEER_API_SUBPATH_LOOKUP_URL = "/lookup";
+    private static final String BEER_API_SUBPATH_QUANTITY_URL = "/quantity";
 
     private MockMvc mockMVC;
 
@@ -90,13 +117,33 @@ public class BeerControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void whenPOSTIsCalledWithAQuantityOutsideZeroAndMaxThenABadRequestStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO aboveMaxBeerDTO = BeerDTOBuilder.builder().max(20).quantity(30).build().toBeerDTO();
+        BeerDTO negativeBeerDTO = BeerDTOBuilder.builder().quantity(-1).build().toBeerDTO();
+
+        //When
+
+        //Then
+        mockMVC.perform(post(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(aboveMaxBeerDTO)))
+                .andExpect(status().isBadRequest());
+        mockMVC.perform(post(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(negativeBeerDTO)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(beerService);
+    }
+
     @Test
     void whenGETIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
         //Given
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+        when(beerService.findByName(beerDTO.getName(), 0L, BeerField.ALL)).thenReturn(beerDTO);
 
         //Then
         mockMVC.perform(
@@ -114,7 +161,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.findByName(beerDTO.getName())).thenThrow(BeerNotFoundException.class);
+        when(beerService.findByName(beerDTO.getName(), 0L, BeerField.ALL)).thenThrow(BeerNotFoundException.class);
 
         //Then
         mockMVC.perform(
@@ -129,7 +176,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.listAll()).thenReturn(List.of(beerDTO));
+        when(beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL)).thenReturn(List.of(beerDTO));
 
         //Then
         mockMVC.perform(
@@ -141,12 +188,139 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$[0].type", is(beerDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETListIsCalledThenTheChangeCursorReadBeforeTheListingIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerService.changeCursor()).thenReturn(7L);
+        when(beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL)).thenReturn(List.of(beerDTO));
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH)
+        )
+                .andExpect(status().isOk())
+                .andExpect(header().string(BeerController.CHANGE_CURSOR_HEADER, "7"))
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenGETIsCalledWithAReadTokenThenItIsPassedToTheService() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerService.findByName(beerDTO.getName(), 42L, BeerField.ALL)).thenReturn(beerDTO);
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                        .header(ReadTokenFilter.READ_TOKEN_HEADER, 42L)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenGETListIsCalledWithFiltersThenTheyAreBoundAndOkStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerFilterDTO filter = BeerFilterDTO.builder()
+                .type(BeerType.LAGER)
+                .brand(beerDTO.getBrand())
+                .belowPercentOfMax(25)
+                .sort("quantity,desc")
+                .build();
+
+        //When
+        when(beerService.listAll(filter, 0L, BeerField.ALL)).thenReturn(List.of(beerDTO));
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH)
+                        .param("type", "LAGER")
+                        .param("brand", beerDTO.getBrand())
+                        .param("belowPercentOfMax", "25")
+                        .param("sort", "quantity,desc")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenGETListIsCalledWithAnUnknownSortPropertyThenBadRequestStatusIsReturned() throws Exception {
+        //Given
+
+        //When
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH)
+                        .param("sort", "price,desc")
+        )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETListIsCalledWithFieldsThenOnlyThoseFieldsAreReturned() throws Exception {
+        //Given
+        Set<BeerField> fields = EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY);
+        BeerDTO beerDTO = BeerField.project(BeerDTOBuilder.builder().build().toBeerDTO(), fields);
+
+        //When
+        when(beerService.listAll(new BeerFilterDTO(), 0L, fields)).thenReturn(List.of(beerDTO));
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH)
+                        .param("fields", "id,name,quantity")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$[0].quantity", is(beerDTO.getQuantity())))
+                .andExpect(jsonPath("$[0].brand").doesNotExist())
+                .andExpect(jsonPath("$[0].type").doesNotExist());
+    }
+
+    @Test
+    void whenGETIsCalledWithoutFieldsThenNullPropertiesAreStillReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).build().toBeerDTO();
+
+        //When
+        when(beerService.findByName(beerDTO.getName(), 0L, BeerField.ALL)).thenReturn(beerDTO);
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+        )
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"id\":null")));
+    }
+
+    @Test
+    void whenGETIsCalledWithAnUnknownFieldThenBadRequestStatusIsReturned() throws Exception {
+        //Given
+
+        //When
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + "/Brahma")
+                        .param("fields", "name,price")
+        )
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(beerService);
+    }
+
     @Test
     void whenGETListWithoutBeersIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
         //Given
 
         //When
-        when(beerService.listAll()).thenReturn(Lists.emptyList());
+        when(beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL)).thenReturn(Lists.emptyList());
 
         //Then
         mockMVC.perform(
@@ -155,6 +329,138 @@ public class BeerControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETChangesIsCalledThenOkStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerChangeDTO change = new BeerChangeDTO(1L, BeerChangeType.CREATED, beerDTO.getId(), beerDTO);
+
+        //When
+        when(beerService.listChanges(0L, 0L)).thenReturn(CompletableFuture.completedFuture(new BeerChangesDTO(0L, 1L, List.of(change))));
+
+        //Then
+        MvcResult pending = mockMVC.perform(
+                get(BEER_API_URL_PATH + BEER_API_SUBPATH_CHANGES_URL)
+                        .param("since", "0")
+        )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMVC.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cursor", is(1)))
+                .andExpect(jsonPath("$.changes[0].type", is(BeerChangeType.CREATED.toString())))
+                .andExpect(jsonPath("$.changes[0].beer.name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenGETChangesIsCalledWithAnExpiredSequenceThenGoneStatusIsReturned() throws Exception {
+        //Given
+
+        //When
+        when(beerService.listChanges(1L, 0L)).thenThrow(new BeerChangeFeedExpiredException(1L, 5L, 20L));
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + BEER_API_SUBPATH_CHANGES_URL)
+                        .param("since", "1")
+        )
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.since", is(1)))
+                .andExpect(jsonPath("$.oldestSequence", is(5)))
+                .andExpect(jsonPath("$.lastSequence", is(20)));
+    }
+
+    @Test
+    void whenGETChangesIsCalledWithoutASequenceThenTheBeerNamedChangesIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("changes").build().toBeerDTO();
+
+        //When
+        when(beerService.findByName("changes", 0L, BeerField.ALL)).thenReturn(beerDTO);
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + BEER_API_SUBPATH_CHANGES_URL)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("changes")));
+    }
+
+    @Test
+    void whenGETConsumptionIsCalledWithValidIdThenOkStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerConsumptionDTO consumptionDTO = new BeerConsumptionDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getType(),
+                beerDTO.getQuantity(), Map.of("1d", 5.0), Map.of("1d", 2.0));
+
+        //When
+        when(beerService.findConsumptionById(VALID_BEER_ID)).thenReturn(consumptionDTO);
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_CONSUMPTION_URL)
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.ratesPerDay.1d", is(5.0)))
+                .andExpect(jsonPath("$.daysOfStock.1d", is(2.0)));
+    }
+
+    @Test
+    void whenGETConsumptionIsCalledWithAnInvalidIdThenNotFoundStatusIsReturned() throws Exception {
+        //When
+        when(beerService.findConsumptionById(INVALID_BEER_ID)).thenThrow(BeerNotFoundException.class);
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_CONSUMPTION_URL)
+        )
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenGETConsumptionIsCalledWithATypeThenOkStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerConsumptionDTO consumptionDTO = new BeerConsumptionDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getType(),
+                beerDTO.getQuantity(), Map.of("1d", 0.0), Map.of());
+
+        //When
+        when(beerService.listConsumptionByType(BeerType.LAGER)).thenReturn(List.of(consumptionDTO));
+
+        //Then
+        mockMVC.perform(
+                get(BEER_API_URL_PATH + BEER_API_SUBPATH_CONSUMPTION_URL)
+                        .param("type", BeerType.LAGER.toString())
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenPOSTLookupIsCalledThenResultsAreReturnedInRequestOrder() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerLookupDTO beerLookupDTO = new BeerLookupDTO(List.of(VALID_BEER_ID), List.of("Unknown"));
+
+        //When
+        when(beerService.lookup(beerLookupDTO)).thenReturn(List.of(
+                BeerLookupResultDTO.ofId(VALID_BEER_ID, beerDTO),
+                BeerLookupResultDTO.ofName("Unknown", null)));
+
+        //Then
+        mockMVC.perform(
+                post(BEER_API_URL_PATH + BEER_API_SUBPATH_LOOKUP_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJSONString(beerLookupDTO))
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found", is(true)))
+                .andExpect(jsonPath("$[0].beer.name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$[1].name", is("Unknown")))
+                .andExpect(jsonPath("$[1].found", is(false)));
+    }
+
     @Test
     void whenDELETEIsCalledWithValidIdThenNotContentStatusIsReturned() throws Exception {
         //Given
@@ -361,4 +667,104 @@ public class BeerControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+
+    @Test
+    void whenPUTIsCalledToSetBeerQuantityThenOkStatusIsReturned() throws Exception {
+        //Given
+        StockQuantityDTO stockQuantityDTO = StockQuantityDTO.builder()
+                .quantity(42)
+                .build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(42).build().toBeerDTO();
+
+        //When
+        when(beerService.setQuantity(VALID_BEER_ID, stockQuantityDTO.getQuantity())).thenReturn(beerDTO);
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_QUANTITY_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(stockQuantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+    }
+
+    @Test
+    void whenPUTIsCalledToSetBeerQuantityMoreThanMaxThenABadRequestStatusIsReturned() throws Exception {
+        //Given
+        StockQuantityDTO stockQuantityDTO = StockQuantityDTO.builder()
+                .quantity(60)
+                .build();
+
+        //When
+        when(beerService.setQuantity(VALID_BEER_ID, stockQuantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_QUANTITY_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(stockQuantityDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPUTIsCalledToSetBeerQuantityWithNegativeQuantityThenABadRequestStatusIsReturned() throws Exception {
+        //Given
+        StockQuantityDTO stockQuantityDTO = StockQuantityDTO.builder()
+                .quantity(-1)
+                .build();
+
+        //When
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_QUANTITY_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(stockQuantityDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPUTIsCalledWithBeersThenTheyAreUpserted() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerUpsertDTO beerUpsertDTO = new BeerUpsertDTO(List.of(beerDTO));
+
+        //When
+        when(beerService.upsertByName(beerUpsertDTO)).thenReturn(List.of(beerDTO));
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(beerUpsertDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenPUTIsCalledWithAnInvalidBeerThenABadRequestStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setBrand(null);
+
+        //When
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(new BeerUpsertDTO(List.of(beerDTO)))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPUTIsCalledWithBeersRejectedByTheDatabaseThenABadRequestStatusIsReturned() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerUpsertDTO beerUpsertDTO = new BeerUpsertDTO(List.of(beerDTO));
+
+        //When
+        when(beerService.upsertByName(beerUpsertDTO)).thenThrow(BeerStockInvalidException.class);
+
+        //Then
+        mockMVC.perform(put(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJSONString(beerUpsertDTO)))
+                .andExpect(status().isBadRequest());
+    }
 }
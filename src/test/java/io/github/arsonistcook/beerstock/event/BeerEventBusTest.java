@@ -0,0 +1,139 @@
+package io.github.arsonistcook.beerstock.event;
+
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BeerEventBusTest {
+    private static final int SHARDS = 2;
+    private static final int BATCH_SIZE = 8;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    @Mock
+    private ObjectProvider<BeerEventHandler> handlerProvider;
+
+    @Test
+    void whenEventsArePublishedConcurrentlyThenEachBeerReceivesThemInOrder() throws InterruptedException {
+        //Given
+        Map<Long, List<Long>> receivedByBeer = new ConcurrentHashMap<>();
+        BeerEventHandler handler = (event, endOfBatch) ->
+                receivedByBeer.computeIfAbsent(event.getBeerId(), id -> new CopyOnWriteArrayList<>()).add(event.getSequence());
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        BeerEventBus beerEventBus = new BeerEventBus(handlerProvider, SHARDS, 16, BATCH_SIZE,
+                WaitStrategy.BLOCKING, OverflowPolicy.BLOCK, SHUTDOWN_TIMEOUT_MILLIS);
+        beerEventBus.start();
+
+        //When
+        int eventsPerBeer = 1000;
+        Thread[] producers = new Thread[4];
+        for (int producer = 0; producer < producers.length; producer++) {
+            long beerId = producer;
+            producers[producer] = new Thread(() -> {
+                for (long sequence = 1; sequence <= eventsPerBeer; sequence++) {
+                    beerEventBus.publish(new BeerChangeDTO(sequence, BeerChangeType.UPDATED, beerId, null), BeerOperation.INCREMENT);
+                }
+            });
+            producers[producer].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        beerEventBus.stop();
+
+        //Then
+        assertThat(receivedByBeer.keySet(), hasSize(producers.length));
+        receivedByBeer.values().forEach(sequences -> {
+            assertThat(sequences, hasSize(eventsPerBeer));
+            for (int i = 0; i < sequences.size(); i++) {
+                assertThat(sequences.get(i), is(equalTo(i + 1L)));
+            }
+        });
+    }
+
+    @Test
+    void whenRingIsFullAndOverflowPolicyIsDropThenEventIsDropped() throws InterruptedException {
+        //Given
+        CountDownLatch handlerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseHandler = new CountDownLatch(1);
+        BeerEventHandler handler = (event, endOfBatch) -> {
+            handlerBlocked.countDown();
+            try {
+                releaseHandler.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        BeerEventBus beerEventBus = new BeerEventBus(handlerProvider, 1, 2, 1,
+                WaitStrategy.SLEEPING, OverflowPolicy.DROP, SHUTDOWN_TIMEOUT_MILLIS);
+        beerEventBus.start();
+
+        //When
+        boolean first = beerEventBus.publish(new BeerChangeDTO(1L, BeerChangeType.CREATED, 1L, null), null);
+        handlerBlocked.await();
+        boolean second = beerEventBus.publish(new BeerChangeDTO(2L, BeerChangeType.UPDATED, 1L, null), BeerOperation.INCREMENT);
+        boolean third = beerEventBus.publish(new BeerChangeDTO(3L, BeerChangeType.UPDATED, 1L, null), BeerOperation.INCREMENT);
+        releaseHandler.countDown();
+        beerEventBus.stop();
+
+        //Then
+        assertThat(first, is(true));
+        assertThat(second, is(true));
+        assertThat(third, is(false));
+    }
+
+    @Test
+    void whenRingIsFullAndOverflowPolicyIsBlockThenPublishDefersTheEventUntilFlush() throws InterruptedException {
+        //Given
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch handlerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseHandler = new CountDownLatch(1);
+        BeerEventHandler handler = (event, endOfBatch) -> {
+            handlerBlocked.countDown();
+            try {
+                releaseHandler.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getSequence());
+        };
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        BeerEventBus beerEventBus = new BeerEventBus(handlerProvider, 1, 2, 1,
+                WaitStrategy.SLEEPING, OverflowPolicy.BLOCK, SHUTDOWN_TIMEOUT_MILLIS);
+        beerEventBus.start();
+
+        //When
+        beerEventBus.publish(new BeerChangeDTO(1L, BeerChangeType.CREATED, 1L, null), null);
+        handlerBlocked.await();
+        for (long sequence = 2; sequence <= 5; sequence++) {
+            // returns although the ring is full
+            assertThat(beerEventBus.publish(new BeerChangeDTO(sequence, BeerChangeType.UPDATED, 1L, null), BeerOperation.INCREMENT), is(true));
+        }
+        Thread flusher = new Thread(beerEventBus::flush);
+        flusher.start();
+        releaseHandler.countDown();
+        flusher.join(SHUTDOWN_TIMEOUT_MILLIS);
+        beerEventBus.stop();
+
+        //Then
+        assertThat(flusher.isAlive(), is(false));
+        assertThat(received, contains(1L, 2L, 3L, 4L, 5L));
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.arsonistcook.beerstock.grpc;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.entity.BeerLease;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
+import io.github.arsonistcook.beerstock.exception.BeerStockExceededException;
+import io.github.arsonistcook.beerstock.grpc.v1.BeerReply;
+import io.github.arsonistcook.beerstock.grpc.v1.BeerStockGrpc;
+import io.github.arsonistcook.beerstock.grpc.v1.FindByNameRequest;
+import io.github.arsonistcook.beerstock.grpc.v1.LookupReply;
+import io.github.arsonistcook.beerstock.grpc.v1.LookupRequest;
+import io.github.arsonistcook.beerstock.grpc.v1.StockDelta;
+import io.github.arsonistcook.beerstock.grpc.v1.StockResult;
+import io.github.arsonistcook.beerstock.grpc.v1.StockStatus;
+import io.github.arsonistcook.beerstock.limit.MutationThrottle;
+import io.github.arsonistcook.beerstock.service.BeerLeaseManager;
+import io.github.arsonistcook.beerstock.service.BeerService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BeerStockGrpcServiceTest {
+
+    private static final String CLIENT = "10.0.0.1";
+
+    @Mock
+    private BeerService beerService;
+
+    @Mock
+    private BeerLeaseManager beerLeaseManager;
+
+    @Mock
+    private MutationThrottle mutationThrottle;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setup() throws Exception {
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(new BeerStockGrpcService(beerService, Optional.empty(), mutationThrottle),
+                        new ClientAddressInterceptor()))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void whenRegisteredBeerNameIsGivenThenReturnABeer() throws BeerNotFoundException {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.findByName(expectedFoundBeerDTO.getName(), 0, BeerField.ALL)).thenReturn(expectedFoundBeerDTO);
+
+        //When
+        BeerReply foundBeer = BeerStockGrpc.newBlockingStub(channel)
+                .findByName(FindByNameRequest.newBuilder().setName(expectedFoundBeerDTO.getName()).build());
+
+        //Then
+        assertThat(foundBeer.getId(), is(equalTo(expectedFoundBeerDTO.getId())));
+        assertThat(foundBeer.getName(), is(equalTo(expectedFoundBeerDTO.getName())));
+        assertThat(foundBeer.getQuantity(), is(equalTo(expectedFoundBeerDTO.getQuantity())));
+        assertThat(foundBeer.getType(), is(equalTo(expectedFoundBeerDTO.getType().name())));
+    }
+
+    @Test
+    void whenNotRegisteredBeerNameIsGivenThenStatusIsNotFound() throws BeerNotFoundException {
+        //Given
+        when(beerService.findByName("Unknown", 0, BeerField.ALL)).thenThrow(new BeerNotFoundException("Unknown"));
+
+        //When
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class, () -> BeerStockGrpc.newBlockingStub(channel)
+                .findByName(FindByNameRequest.newBuilder().setName("Unknown").build()));
+
+        //Then
+        assertThat(exception.getStatus().getCode(), is(equalTo(Status.Code.NOT_FOUND)));
+    }
+
+    @Test
+    void whenLookupIsCalledThenOneResultPerKeyIsReturnedInRequestOrder() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.lookup(new BeerLookupDTO(List.of(beerDTO.getId()), List.of("Unknown"))))
+                .thenReturn(List.of(BeerLookupResultDTO.ofId(beerDTO.getId(), beerDTO), BeerLookupResultDTO.ofName("Unknown", null)));
+
+        //When
+        LookupReply reply = BeerStockGrpc.newBlockingStub(channel).lookup(LookupRequest.newBuilder()
+                .addIds(beerDTO.getId())
+                .addNames("Unknown")
+                .build());
+
+        //Then
+        assertThat(reply.getResultsCount(), is(equalTo(2)));
+        assertThat(reply.getResults(0).getId(), is(equalTo(beerDTO.getId())));
+        assertThat(reply.getResults(0).getBeer().getName(), is(equalTo(beerDTO.getName())));
+        assertThat(reply.getResults(1).getName(), is(equalTo("Unknown")));
+        assertThat(reply.getResults(1).getFound(), is(false));
+    }
+
+    @Test
+    void whenMoreThanFiveHundredIdsAreLookedUpThenStatusIsInvalidArgument() {
+        //Given
+        LookupRequest.Builder request = LookupRequest.newBuilder();
+        for (long id = 0; id <= 500; id++) {
+            request.addIds(id);
+        }
+
+        //When
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> BeerStockGrpc.newBlockingStub(channel).lookup(request.build()));
+
+        //Then
+        assertThat(exception.getStatus().getCode(), is(equalTo(Status.Code.INVALID_ARGUMENT)));
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    void whenStockDeltasAreStreamedThenEachGetsItsResultInOrderAndFailuresDoNotEndTheStream() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(beerDTO.getQuantity() + 5).build().toBeerDTO();
+        BeerDTO decrementedBeerDTO = BeerDTOBuilder.builder().quantity(beerDTO.getQuantity() - 3).build().toBeerDTO();
+        when(beerService.increment(beerDTO.getId(), 5)).thenReturn(incrementedBeerDTO);
+        when(beerService.increment(beerDTO.getId(), 100)).thenThrow(new BeerStockExceededException(beerDTO.getId(), 100));
+        when(beerService.decrement(beerDTO.getId(), 3)).thenReturn(decrementedBeerDTO);
+        List<StockResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        //When
+        StreamObserver<StockDelta> deltas = BeerStockGrpc.newStub(channel).adjustStock(new StreamObserver<>() {
+            @Override
+            public void onNext(StockResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+        deltas.onNext(delta(1, beerDTO.getId(), 5));
+        deltas.onNext(delta(2, beerDTO.getId(), 100));
+        deltas.onNext(delta(3, beerDTO.getId(), 101));
+        deltas.onNext(delta(4, beerDTO.getId(), -3));
+        deltas.onCompleted();
+
+        //Then
+        assertThat(completed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(results.stream().map(StockResult::getCorrelationId).toArray(), is(equalTo(new Object[]{1L, 2L, 3L, 4L})));
+        assertThat(results.get(0).getStatus(), is(equalTo(StockStatus.OK)));
+        assertThat(results.get(0).getBeer().getQuantity(), is(equalTo(incrementedBeerDTO.getQuantity())));
+        assertThat(results.get(1).getStatus(), is(equalTo(StockStatus.EXCEEDED)));
+        assertThat(results.get(2).getStatus(), is(equalTo(StockStatus.INVALID)));
+        assertThat(results.get(3).getStatus(), is(equalTo(StockStatus.OK)));
+        assertThat(results.get(3).getBeer().getQuantity(), is(equalTo(decrementedBeerDTO.getQuantity())));
+        verify(beerService, never()).increment(beerDTO.getId(), 101);
+        verify(mutationThrottle, times(3)).tryAcquire(eq(beerDTO.getId()), anyString());
+    }
+
+    @Test
+    void whenAnotherInstanceOwnsTheBeerThenTheDeltaIsNotAppliedAndPointsToTheOwner() {
+        //Given
+        BeerStockGrpcService service = new BeerStockGrpcService(beerService, Optional.of(beerLeaseManager), mutationThrottle);
+        when(beerLeaseManager.isOwner(1L)).thenReturn(false);
+        when(beerLeaseManager.ownerOf(1L)).thenReturn(Optional.of(new BeerLease("partition:1", "other", "http://other:8080", Instant.MAX)));
+        when(beerLeaseManager.getInstanceId()).thenReturn("self");
+
+        //When
+        StockResult result = service.adjust(delta(1, 1L, 5), CLIENT);
+
+        //Then
+        assertThat(result.getStatus(), is(equalTo(StockStatus.NOT_OWNER)));
+        assertThat(result.getOwnerUrl(), is(equalTo("http://other:8080")));
+        verifyNoInteractions(beerService, mutationThrottle);
+    }
+
+    @Test
+    void whenThePartitionIsBetweenOwnersThenTheDeltaIsNotAppliedAndGetsARetryAfter() {
+        //Given
+        BeerStockGrpcService service = new BeerStockGrpcService(beerService, Optional.of(beerLeaseManager), mutationThrottle);
+        when(beerLeaseManager.isOwner(1L)).thenReturn(false);
+        when(beerLeaseManager.ownerOf(1L)).thenReturn(Optional.empty());
+
+        //When
+        StockResult result = service.adjust(delta(1, 1L, 5), CLIENT);
+
+        //Then
+        assertThat(result.getStatus(), is(equalTo(StockStatus.NOT_OWNER)));
+        assertThat(result.getOwnerUrl(), is(equalTo("")));
+        assertThat(result.getRetryAfterMs(), is(equalTo(1000L)));
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    void whenTheBeerOrTheClientIsOverItsRateThenTheDeltaIsThrottledWithARetryAfter() {
+        //Given
+        BeerStockGrpcService service = new BeerStockGrpcService(beerService, Optional.of(beerLeaseManager), mutationThrottle);
+        when(beerLeaseManager.isOwner(1L)).thenReturn(true);
+        when(mutationThrottle.tryAcquire(1L, CLIENT)).thenReturn(TimeUnit.MICROSECONDS.toNanos(1500));
+
+        //When
+        StockResult result = service.adjust(delta(1, 1L, -5), CLIENT);
+
+        //Then
+        assertThat(result.getStatus(), is(equalTo(StockStatus.THROTTLED)));
+        assertThat(result.getRetryAfterMs(), is(equalTo(2L)));
+        verifyNoInteractions(beerService);
+    }
+
+    private static StockDelta delta(long correlationId, long beerId, int quantity) {
+        return StockDelta.newBuilder().setCorrelationId(correlationId).setBeerId(beerId).setQuantity(quantity).build();
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.service.BeerChangeFeed;
+import io.github.arsonistcook.beerstock.service.BeerReadModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+class BeerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final BeerReadModel beerReadModel = mock(BeerReadModel.class);
+
+    @Test
+    void whenTheReadModelIsBehindTheLogThenTheSnapshotIsSkippedAndTheLogKept() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerJournal beerJournal = journal(emptyDatabase());
+        beerJournal.start();
+        beerJournal.append(List.of(new BeerChangeDTO(1L, BeerChangeType.CREATED, beerDTO.getId(), beerDTO)));
+
+        //When
+        when(beerReadModel.isReady()).thenReturn(true);
+        when(beerReadModel.awaitSequence(1L)).thenReturn(false);
+        beerJournal.snapshot();
+        beerJournal.stop();
+
+        //Then
+        verify(beerReadModel, never()).findAll();
+        assertThat(Files.exists(directory.resolve("beers.snapshot")), is(false));
+        DataSource restored = emptyDatabase();
+        BeerJournal restarted = journal(restored);
+        restarted.start();
+        restarted.stop();
+        assertThat(new JdbcTemplate(restored).queryForObject("SELECT name FROM beer WHERE id = 1", String.class),
+                is(equalTo(beerDTO.getName())));
+    }
+
+    @Test
+    void whenTheLogChangesABeerSeveralTimesThenItIsRestoredOnce() {
+        //Given
+        BeerDTO brahma = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+        BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        BeerJournal beerJournal = journal(emptyDatabase());
+        beerJournal.start();
+        beerJournal.append(List.of(
+                new BeerChangeDTO(1L, BeerChangeType.CREATED, brahma.getId(), brahma),
+                new BeerChangeDTO(2L, BeerChangeType.UPDATED, brahma.getId(), brahma),
+                new BeerChangeDTO(3L, BeerChangeType.CREATED, skol.getId(), skol),
+                new BeerChangeDTO(4L, BeerChangeType.DELETED, skol.getId(), null)));
+        beerJournal.stop();
+
+        //When
+        BeerJournal restarted = journal(emptyDatabase());
+        restarted.start();
+        restarted.stop();
+
+        //Then
+        assertThat(restarted.getRestoredBeers(), is(equalTo(1L)));
+    }
+
+    private BeerJournal journal(DataSource dataSource) {
+        return new BeerJournal(true, directory.toString(), false, dataSource, mock(BeerChangeFeed.class), beerReadModel);
+    }
+
+    private static DataSource emptyDatabase() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE beer (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL UNIQUE, brand VARCHAR(255) NOT NULL, max INT NOT NULL, quantity INT NOT NULL, "
+                + "type VARCHAR(255) NOT NULL, deleted_at TIMESTAMP)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenASnapshotIsWrittenThenItIsReadBackWithItsSequence() throws IOException {
+        //Given
+        Path file = directory.resolve("beers.snapshot");
+        List<BeerDTO> beers = LongStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> BeerDTOBuilder.builder().id(id).name("Cerveja-" + id + "-\u00e7\u00e3o").type(BeerType.STOUT).build().toBeerDTO())
+                .collect(Collectors.toList());
+
+        //When
+        BeerSnapshotFile.write(file, 42, beers);
+
+        //Then
+        List<BeerDTO> read = new ArrayList<>();
+        assertThat(BeerSnapshotFile.read(file, read::add), is(equalTo(42L)));
+        assertThat(read, is(equalTo(beers)));
+    }
+
+    @Test
+    void whenASnapshotIsCorruptedThenReadingItFails() throws IOException {
+        //Given
+        Path file = directory.resolve("beers.snapshot");
+        BeerSnapshotFile.write(file, 1, List.of(BeerDTOBuilder.builder().build().toBeerDTO()));
+
+        //When
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 30);
+        }
+
+        //Then
+        assertThrows(IOException.class, () -> BeerSnapshotFile.read(file, beer -> {}));
+    }
+}
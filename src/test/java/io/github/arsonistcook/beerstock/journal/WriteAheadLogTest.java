@@ -0,0 +1,141 @@
+package io.github.arsonistcook.beerstock.journal;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenConcurrentWritersAppendThenEveryChangeIsReplayedInSequenceOrder() throws Exception {
+        //Given
+        int writers = 8;
+        int changesPerWriter = 200;
+        AtomicLong sequence = new AtomicLong();
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, true);
+        writeAheadLog.open();
+
+        //When
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < changesPerWriter; i++) {
+                    long seq = sequence.incrementAndGet();
+                    writeAheadLog.append(List.of(updated(seq)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        writeAheadLog.close();
+
+        //Then
+        List<Long> replayed = new ArrayList<>();
+        long lastSequence = new WriteAheadLog(directory, true).replay(0, change -> replayed.add(change.getSequence()));
+        assertThat(lastSequence, is(equalTo((long) writers * changesPerWriter)));
+        assertThat(replayed, is(equalTo(LongStream.rangeClosed(1, lastSequence).boxed().collect(Collectors.toList()))));
+        assertThat(writeAheadLog.fsyncs(), is(lessThanOrEqualTo(writeAheadLog.appends())));
+    }
+
+    @Test
+    void whenReplayingAfterASequenceThenOnlyLaterChangesAreReplayed() throws IOException {
+        //Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, false);
+        writeAheadLog.open();
+        writeAheadLog.append(List.of(updated(1), updated(2), deleted(3)));
+        writeAheadLog.close();
+
+        //When
+        List<BeerChangeDTO> replayed = new ArrayList<>();
+        long lastSequence = new WriteAheadLog(directory, false).replay(1, replayed::add);
+
+        //Then
+        assertThat(lastSequence, is(equalTo(3L)));
+        assertThat(replayed, contains(updated(2), deleted(3)));
+    }
+
+    @Test
+    void whenTheLastRecordIsTornThenReplayStopsBeforeIt() throws IOException {
+        //Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, false);
+        writeAheadLog.open();
+        writeAheadLog.append(List.of(updated(1)));
+        writeAheadLog.append(List.of(updated(2)));
+        writeAheadLog.close();
+        Path segment = onlySegment();
+
+        //When
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //Then
+        List<BeerChangeDTO> replayed = new ArrayList<>();
+        long lastSequence = new WriteAheadLog(directory, false).replay(0, replayed::add);
+        assertThat(lastSequence, is(equalTo(1L)));
+        assertThat(replayed, contains(updated(1)));
+    }
+
+    @Test
+    void whenSegmentsAreCoveredByASnapshotThenTheyAreDeleted() throws IOException {
+        //Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, false);
+        writeAheadLog.open();
+        writeAheadLog.append(List.of(updated(1), updated(2)));
+        long closedSegment = writeAheadLog.roll();
+        writeAheadLog.append(List.of(updated(3)));
+
+        //When
+        writeAheadLog.deleteSegmentsUpTo(writeAheadLog.maxSequenceOf(closedSegment));
+        writeAheadLog.close();
+
+        //Then
+        List<BeerChangeDTO> replayed = new ArrayList<>();
+        new WriteAheadLog(directory, false).replay(0, replayed::add);
+        assertThat(replayed, contains(updated(3)));
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.collect(Collectors.toList());
+            assertThat(segments, hasSize(1));
+            return segments.get(0);
+        }
+    }
+
+    private static BeerChangeDTO updated(long sequence) {
+        BeerDTO beer = BeerDTOBuilder.builder().id(sequence).name("Beer-" + sequence).build().toBeerDTO();
+        return new BeerChangeDTO(sequence, BeerChangeType.UPDATED, sequence, beer);
+    }
+
+    private static BeerChangeDTO deleted(long sequence) {
+        return new BeerChangeDTO(sequence, BeerChangeType.DELETED, sequence, null);
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AimdLimitTest {
+    private static final long TARGET_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void whenTheLimitIsReachedThenFurtherRequestsAreRejected() {
+        //Given
+        AimdLimit limit = new AimdLimit(2, 1, 10, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+
+        //Then
+        assertThat(first && second, is(true));
+        assertThat(third, is(false));
+        assertThat(limit.getInFlight(), is(equalTo(2)));
+        assertThat(limit.getRejected(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenRequestsAreSlowerThanTheTargetThenTheLimitBacksOffDownToTheMinimum() {
+        //Given
+        AimdLimit limit = new AimdLimit(16, 2, 32, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        limit.tryAcquire();
+        limit.release(0, SLOW);
+        int afterOneSlowRequest = limit.getLimit();
+        // each request starts after the previous one, and so after the previous cut
+        IntStream.range(1, 11).forEach(i -> {
+            limit.tryAcquire();
+            limit.release(i * SLOW + 1, (i + 1) * SLOW);
+        });
+
+        //Then
+        assertThat(afterOneSlowRequest, is(equalTo(8)));
+        assertThat(limit.getLimit(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenFastRequestsUseTheLimitThenItGrowsUpToTheMaximum() {
+        //Given
+        AimdLimit limit = new AimdLimit(4, 1, 6, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        IntStream.range(0, 10).forEach(i -> {
+            while (limit.tryAcquire()) {
+            }
+            limit.release(0, FAST);
+            limit.release(0, FAST);
+        });
+
+        //Then
+        assertThat(limit.getLimit(), is(equalTo(6)));
+    }
+
+    @Test
+    void whenTrafficIsLightThenTheLimitDoesNotGrow() {
+        //Given
+        AimdLimit limit = new AimdLimit(10, 1, 100, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        IntStream.range(0, 100).forEach(i -> {
+            limit.tryAcquire();
+            limit.release(0, FAST);
+        });
+
+        //Then
+        assertThat(limit.getLimit(), is(equalTo(10)));
+    }
+
+    @Test
+    void whenConcurrentRequestsAreAllSlowThenTheLimitIsCutOncePerWindow() {
+        //Given
+        AimdLimit limit = new AimdLimit(16, 2, 32, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        IntStream.range(0, 16).forEach(i -> limit.tryAcquire());
+        // all admitted before the first of them ended and cut the limit
+        IntStream.range(0, 16).forEach(i -> limit.release(i, SLOW + i));
+        int afterTheBurst = limit.getLimit();
+        limit.tryAcquire();
+        limit.release(2 * SLOW, 3 * SLOW);
+
+        //Then
+        assertThat(afterTheBurst, is(equalTo(8)));
+        assertThat(limit.getLimit(), is(equalTo(4)));
+    }
+
+    @Test
+    void whenARequestIsReleasedUnsampledThenTheLimitIsUnchanged() {
+        //Given
+        AimdLimit limit = new AimdLimit(4, 1, 8, TARGET_LATENCY_NANOS, 0.5);
+
+        //When
+        limit.tryAcquire();
+        limit.releaseUnsampled();
+
+        //Then
+        assertThat(limit.getInFlight(), is(equalTo(0)));
+        assertThat(limit.getLimit(), is(equalTo(4)));
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import io.github.arsonistcook.beerstock.config.ReadTokenFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ConcurrencyLimitFilterTest {
+    private static final long TARGET_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private AimdLimit readLimit;
+    private AimdLimit writeLimit;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        readLimit = new AimdLimit(1, 1, 1, TARGET_LATENCY_NANOS, 0.5);
+        writeLimit = new AimdLimit(1, 1, 1, TARGET_LATENCY_NANOS, 0.5);
+        filter = new ConcurrencyLimitFilter(true, readLimit, writeLimit, 2);
+    }
+
+    @Test
+    void whenTheWriteLimitIsReachedThenWritesGetServiceUnavailableWithRetryAfter() throws ServletException, IOException {
+        //Given
+        writeLimit.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("PATCH", "/api/v1/beers/1/increment"), response, new MockFilterChain());
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.SERVICE_UNAVAILABLE.value())));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is(equalTo("2")));
+        assertThat(writeLimit.getRejected(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenTheWriteLimitIsReachedThenReadsAreStillServed() throws ServletException, IOException {
+        //Given
+        writeLimit.tryAcquire();
+        MockHttpServletResponse getResponse = new MockHttpServletResponse();
+        MockHttpServletResponse lookupResponse = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/beers/Brahma"), getResponse, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/beers/lookup"), lookupResponse, new MockFilterChain());
+
+        //Then
+        assertThat(getResponse.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(lookupResponse.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(readLimit.getInFlight(), is(equalTo(0)));
+    }
+
+    @Test
+    void whenTheReadLimitIsReachedThenChangeFeedLongPollsAreStillServed() throws ServletException, IOException {
+        //Given
+        readLimit.tryAcquire();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/beers/changes");
+        request.setParameter("since", "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(request, response, new MockFilterChain());
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(readLimit.getRejected(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenReadsWaitForAReadTokenOrWritesAreBulkThenTheirLatencyIsNotSampled() throws ServletException, IOException {
+        //Given
+        AimdLimit zeroTargetReadLimit = new AimdLimit(2, 1, 4, 0, 0.5);
+        AimdLimit zeroTargetWriteLimit = new AimdLimit(2, 1, 4, 0, 0.5);
+        ConcurrencyLimitFilter zeroTargetFilter = new ConcurrencyLimitFilter(true, zeroTargetReadLimit, zeroTargetWriteLimit, 2);
+        MockHttpServletRequest tokenRead = new MockHttpServletRequest("GET", "/api/v1/beers/Brahma");
+        tokenRead.addHeader(ReadTokenFilter.READ_TOKEN_HEADER, "42");
+
+        //When
+        zeroTargetFilter.doFilter(tokenRead, new MockHttpServletResponse(), new MockFilterChain());
+        zeroTargetFilter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/beers"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //Then
+        assertThat(zeroTargetReadLimit.getLimit(), is(equalTo(2)));
+        assertThat(zeroTargetReadLimit.getInFlight(), is(equalTo(0)));
+        assertThat(zeroTargetWriteLimit.getLimit(), is(equalTo(2)));
+        assertThat(zeroTargetWriteLimit.getInFlight(), is(equalTo(0)));
+    }
+
+    @Test
+    void whenTheRequestIsOutsideTheBeerApiThenItIsNotLimited() throws ServletException, IOException {
+        //Given
+        readLimit.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain());
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.OK.value())));
+    }
+}
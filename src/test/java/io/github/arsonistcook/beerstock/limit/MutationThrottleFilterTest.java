@@ -0,0 +1,161 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class MutationThrottleFilterTest {
+    private static final String CLIENT_HEADER = "X-Client-Id";
+    private static final String PROXY = "10.0.0.1";
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toNanos(60);
+
+    private long now;
+    private TokenBucketTable beerBuckets;
+    private TokenBucketTable clientBuckets;
+    private MutationThrottleFilter filter;
+
+    @BeforeEach
+    void setup() {
+        now = 0;
+        beerBuckets = new TokenBucketTable(0.25, 1, 100, 4, IDLE_TIMEOUT);
+        clientBuckets = new TokenBucketTable(1, 2, 100, 4, IDLE_TIMEOUT);
+        filter = new MutationThrottleFilter(new MutationThrottle(true, beerBuckets, clientBuckets, () -> now), CLIENT_HEADER, Set.of(PROXY));
+    }
+
+    @Test
+    void whenABeerIsOverItsRateThenMutationsGetTooManyRequestsWithRetryAfter() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //When
+        MockHttpServletResponse response = send("PATCH", "/api/v1/beers/1/decrement", "scanner-2");
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is(equalTo("4")));
+        assertThat(beerBuckets.getThrottled(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenABeerIsThrottledThenTheClientCanStillMutateOtherBeers() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //When
+        MockHttpServletResponse response = send("PATCH", "/api/v1/beers/2/increment", "scanner-1");
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(clientBuckets.getThrottled(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenAClientIsOverItsRateThenItIsThrottledOnEveryBeer() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+        send("PATCH", "/api/v1/beers/2/increment", "scanner-1");
+
+        //When
+        MockHttpServletResponse throttled = send("PATCH", "/api/v1/beers/3/increment", "scanner-1");
+        MockHttpServletResponse otherClient = send("PATCH", "/api/v1/beers/4/increment", "scanner-2");
+
+        //Then
+        assertThat(throttled.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(throttled.getHeader(HttpHeaders.RETRY_AFTER), is(equalTo("1")));
+        assertThat(otherClient.getStatus(), is(equalTo(HttpStatus.OK.value())));
+    }
+
+    @Test
+    void whenTheBucketHasRefilledThenTheMutationIsServedAgain() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //When
+        now += TimeUnit.SECONDS.toNanos(4);
+        MockHttpServletResponse response = send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.OK.value())));
+    }
+
+    @Test
+    void whenTheRequestIsNotAStockMutationThenItIsNotThrottled() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //When
+        MockHttpServletResponse setQuantity = send("PUT", "/api/v1/beers/1/quantity", "scanner-1");
+        MockHttpServletResponse read = send("GET", "/api/v1/beers/1", "scanner-1");
+
+        //Then
+        assertThat(setQuantity.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(read.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(beerBuckets.size(), is(equalTo(1)));
+    }
+
+    @Test
+    void whenTheIdIsSpelledDifferentlyThenItStillDrawsFromTheSameBeerBucket() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "scanner-1");
+
+        //When
+        MockHttpServletResponse leadingZero = send("PATCH", "/api/v1/beers/01/increment", "scanner-2");
+        MockHttpServletResponse matrixVariable = send("PATCH", "/api/v1/beers/1;x=1/increment", "scanner-3");
+
+        //Then
+        assertThat(leadingZero.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(matrixVariable.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(beerBuckets.size(), is(equalTo(1)));
+    }
+
+    @Test
+    void whenTheIdIsNotNumericThenTheRequestIsNotThrottled() throws ServletException, IOException {
+        //When
+        MockHttpServletResponse response = send("PATCH", "/api/v1/beers/abc/increment", "scanner-1");
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(beerBuckets.size(), is(equalTo(0)));
+        assertThat(clientBuckets.size(), is(equalTo(0)));
+    }
+
+    @Test
+    void whenTheClientHeaderDoesNotComeFromATrustedProxyThenTheClientIsKeyedOnItsAddress() throws ServletException, IOException {
+        //Given
+        send("PATCH", "/api/v1/beers/1/increment", "10.0.0.2", "scanner-1");
+        send("PATCH", "/api/v1/beers/2/increment", "10.0.0.2", "scanner-2");
+
+        //When
+        MockHttpServletResponse response = send("PATCH", "/api/v1/beers/3/increment", "10.0.0.2", "scanner-3");
+
+        //Then
+        assertThat(response.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(clientBuckets.size(), is(equalTo(1)));
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String client) throws ServletException, IOException {
+        return send(method, uri, PROXY, client);
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr, String client) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(CLIENT_HEADER, client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.arsonistcook.beerstock.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TokenBucketTableTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void whenTheBurstIsUsedUpThenTheWaitIsTheTimeUntilTheNextToken() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(2, 3, 100, 4, IDLE_TIMEOUT);
+
+        //When
+        IntStream.range(0, 3).forEach(i -> assertThat(buckets.tryAcquire("1", 0), is(equalTo(0L))));
+        long wait = buckets.tryAcquire("1", 0);
+
+        //Then
+        assertThat(wait, is(equalTo(SECOND / 2)));
+        assertThat(buckets.getThrottled(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenTimePassesThenTheBucketRefillsAtTheRateUpToTheBurst() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(2, 3, 100, 4, IDLE_TIMEOUT);
+        IntStream.range(0, 3).forEach(i -> buckets.tryAcquire("1", 0));
+
+        //When
+        long afterHalfASecond = buckets.tryAcquire("1", SECOND / 2);
+        long rightAfter = buckets.tryAcquire("1", SECOND / 2);
+        IntStream.range(0, 3).forEach(i -> assertThat(buckets.tryAcquire("1", 100 * SECOND), is(equalTo(0L))));
+        long afterTheBurst = buckets.tryAcquire("1", 100 * SECOND);
+
+        //Then
+        assertThat(afterHalfASecond, is(equalTo(0L)));
+        assertThat(rightAfter, is(greaterThan(0L)));
+        assertThat(afterTheBurst, is(greaterThan(0L)));
+    }
+
+    @Test
+    void whenAKeyIsThrottledThenOtherKeysAreNot() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(1, 1, 100, 4, IDLE_TIMEOUT);
+        buckets.tryAcquire("1", 0);
+
+        //When
+        long hotKey = buckets.tryAcquire("1", 0);
+        long otherKey = buckets.tryAcquire("2", 0);
+
+        //Then
+        assertThat(hotKey, is(greaterThan(0L)));
+        assertThat(otherKey, is(equalTo(0L)));
+    }
+
+    @Test
+    void whenATokenIsReleasedThenItCanBeTakenAgain() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(1, 1, 100, 4, IDLE_TIMEOUT);
+        buckets.tryAcquire("1", 0);
+
+        //When
+        buckets.release("1");
+
+        //Then
+        assertThat(buckets.tryAcquire("1", 0), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenMoreKeysThanTheCapacityAreSeenThenTheSizeStaysBounded() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(1, 1, 64, 4, IDLE_TIMEOUT);
+
+        //When
+        IntStream.range(0, 100_000).forEach(id -> buckets.tryAcquire(Integer.toString(id), 0));
+
+        //Then
+        assertThat(buckets.size(), is(lessThanOrEqualTo(64)));
+        assertThat(buckets.getEvicted(), is(greaterThanOrEqualTo(100_000L - 64)));
+    }
+
+    @Test
+    void whenBucketsAreIdleLongerThanTheTimeoutThenTheyAreEvicted() {
+        //Given
+        TokenBucketTable buckets = new TokenBucketTable(1, 1, 100, 4, IDLE_TIMEOUT);
+        buckets.tryAcquire("idle", 0);
+        buckets.tryAcquire("active", IDLE_TIMEOUT);
+
+        //When
+        buckets.evictIdle(IDLE_TIMEOUT + SECOND);
+
+        //Then
+        assertThat(buckets.size(), is(equalTo(1)));
+        assertThat(buckets.getEvicted(), is(equalTo(1L)));
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.arsonistcook.beerstock.repository;
+
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@DataJpaTest
+class BeerSpecificationsTest {
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @BeforeEach
+    void setup() {
+        beerRepository.saveAll(List.of(
+                new Beer(null, "Brahma", "Ambev", 50, 10, BeerType.LAGER, null),
+                new Beer(null, "Skol", "Ambev", 100, 80, BeerType.LAGER, null),
+                new Beer(null, "Guinness", "Diageo", 40, 5, BeerType.STOUT, null),
+                new Beer(null, "Colorado Indica", "Colorado", 20, 19, BeerType.IPA, null)));
+    }
+
+    @Test
+    void whenFilteringByTypeAndBrandThenOnlyMatchingBeersAreReturned() {
+        //Given
+        BeerFilterDTO filter = BeerFilterDTO.builder().type(BeerType.LAGER).brand("Ambev").build();
+
+        //When
+        List<String> names = namesOf(filter);
+
+        //Then
+        assertThat(names, contains("Brahma", "Skol"));
+    }
+
+    @Test
+    void whenFilteringByQuantityRangeThenBoundsAreInclusive() {
+        //Given
+        BeerFilterDTO filter = BeerFilterDTO.builder().minQuantity(10).maxQuantity(19).build();
+
+        //When
+        List<String> names = namesOf(filter);
+
+        //Then
+        assertThat(names, contains("Brahma", "Colorado Indica"));
+    }
+
+    @Test
+    void whenFilteringBelowAPercentOfMaxThenStockRelativeToMaxIsCompared() {
+        //Given
+        BeerFilterDTO filter = BeerFilterDTO.builder().belowPercentOfMax(20).build();
+
+        //When
+        List<String> names = namesOf(filter);
+
+        //Then
+        // Brahma is exactly at 20% and is not below it
+        assertThat(names, contains("Guinness"));
+    }
+
+    @Test
+    void whenSortingByQuantityDescendingThenFullestBeersComeFirst() {
+        //Given
+        BeerFilterDTO filter = BeerFilterDTO.builder().sort("quantity,desc").build();
+
+        //When
+        List<String> names = namesOf(filter);
+
+        //Then
+        assertThat(names, contains("Skol", "Colorado Indica", "Brahma", "Guinness"));
+    }
+
+    @Test
+    void whenSelectingFieldsThenOnlyTheirPropertiesAreFilled() {
+        //Given
+        BeerFilterDTO filter = BeerFilterDTO.builder().type(BeerType.LAGER).sort("quantity,desc").build();
+
+        //When
+        List<BeerDTO> beers = beerRepository.findFields(BeerSpecifications.of(filter), BeerSpecifications.sortOf(filter),
+                EnumSet.of(BeerField.NAME, BeerField.QUANTITY));
+
+        //Then
+        assertThat(beers, contains(
+                BeerDTO.builder().name("Skol").quantity(80).build(),
+                BeerDTO.builder().name("Brahma").quantity(10).build()));
+    }
+
+    private List<String> namesOf(BeerFilterDTO filter) {
+        return beerRepository.findAll(BeerSpecifications.of(filter), BeerSpecifications.sortOf(filter)).stream()
+                .map(Beer::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.exception.BeerChangeFeedExpiredException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerChangeFeedTest {
+
+    private static final int RETENTION = 3;
+
+    private final BeerChangeFeed beerChangeFeed = new BeerChangeFeed(RETENTION, 1000, 2);
+
+    @Test
+    void whenChangesAreRecordedThenTheyAreReturnedAfterTheGivenSequence() throws BeerChangeFeedExpiredException {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        beerChangeFeed.record(BeerChangeType.CREATED, beerDTO.getId(), beerDTO);
+        beerChangeFeed.record(BeerChangeType.DELETED, beerDTO.getId(), null);
+
+        //Then
+        BeerChangesDTO changes = beerChangeFeed.changesSince(1, 0).join();
+        assertThat(changes.getCursor(), is(equalTo(2L)));
+        assertThat(changes.getChanges(), hasSize(1));
+        assertThat(changes.getChanges().get(0).getType(), is(equalTo(BeerChangeType.DELETED)));
+        assertThat(changes.getChanges().get(0).getBeer(), is(nullValue()));
+    }
+
+    @Test
+    void whenMoreChangesThanPageSizeExistThenCursorPointsToTheLastReturnedChange() throws BeerChangeFeedExpiredException {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        beerChangeFeed.record(BeerChangeType.CREATED, beerDTO.getId(), beerDTO);
+        beerChangeFeed.record(BeerChangeType.UPDATED, beerDTO.getId(), beerDTO);
+        beerChangeFeed.record(BeerChangeType.UPDATED, beerDTO.getId(), beerDTO);
+
+        //Then
+        BeerChangesDTO changes = beerChangeFeed.changesSince(0, 0).join();
+        assertThat(changes.getChanges(), hasSize(2));
+        assertThat(changes.getCursor(), is(equalTo(2L)));
+    }
+
+    @Test
+    void whenNoChangesArriveWhileWaitingThenAnEmptyPageIsReturned() throws Exception {
+        //Given
+
+        //When
+        BeerChangesDTO changes = beerChangeFeed.changesSince(0, 10).get(1, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(changes.getChanges(), is(empty()));
+        assertThat(changes.getCursor(), is(equalTo(0L)));
+    }
+
+    @Test
+    void whenAChangeIsRecordedWhileWaitingThenThePendingPageIsCompletedWithIt() throws Exception {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        CompletableFuture<BeerChangesDTO> pending = beerChangeFeed.changesSince(0, 1000);
+
+        //When
+        assertThat(pending.isDone(), is(false));
+        beerChangeFeed.record(BeerChangeType.CREATED, beerDTO.getId(), beerDTO);
+
+        //Then
+        BeerChangesDTO changes = pending.get(0, TimeUnit.SECONDS);
+        assertThat(changes.getCursor(), is(equalTo(1L)));
+        assertThat(changes.getChanges(), hasSize(1));
+    }
+
+    @Test
+    void whenSequenceIsNoLongerRetainedThenResyncIsRequired() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        for (int i = 0; i < RETENTION + 2; i++) {
+            beerChangeFeed.record(BeerChangeType.UPDATED, beerDTO.getId(), beerDTO);
+        }
+
+        //Then
+        BeerChangeFeedExpiredException expired = assertThrows(BeerChangeFeedExpiredException.class, () -> beerChangeFeed.changesSince(0, 0));
+        assertThat(expired.getOldestSequence(), is(equalTo(3L)));
+        assertThat(expired.getLastSequence(), is(equalTo((long) RETENTION + 2)));
+    }
+
+    @Test
+    void whenSequenceIsAheadOfTheFeedThenResyncIsRequired() {
+        //Given
+
+        //When
+
+        //Then
+        assertThrows(BeerChangeFeedExpiredException.class, () -> beerChangeFeed.changesSince(42, 0));
+    }
+}
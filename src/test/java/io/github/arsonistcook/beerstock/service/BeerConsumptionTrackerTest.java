@@ -0,0 +1,134 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerConsumptionDTO;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.event.BeerEvent;
+import io.github.arsonistcook.beerstock.exception.BeerNotFoundException;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BeerConsumptionTrackerTest {
+    private static final Instant NOW = Instant.parse("2021-07-01T10:00:00Z");
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private final BeerConsumptionTracker beerConsumptionTracker =
+            new BeerConsumptionTracker(mock(BeerRepository.class), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void whenStockIsDecrementedSteadilyThenDailyRateAndDaysOfStockAreProjected() throws BeerNotFoundException {
+        //Given
+        long start = NOW.toEpochMilli() - Duration.ofDays(30).toMillis();
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().max(500).quantity(500).build().toBeerDTO(), start, false);
+
+        //When
+        int quantity = 500;
+        for (long timestamp = start + HOUR; timestamp <= NOW.toEpochMilli(); timestamp += HOUR) {
+            boolean decrement = quantity > 0;
+            quantity = decrement ? quantity - 1 : 500;
+            beerConsumptionTracker.update(BeerDTOBuilder.builder().max(500).quantity(quantity).build().toBeerDTO(), timestamp, decrement);
+        }
+
+        //Then
+        BeerConsumptionDTO consumption = beerConsumptionTracker.findById(1L);
+        assertThat(consumption.getRatesPerDay().get("1d"), is(closeTo(24.0, 1.0)));
+        assertThat(consumption.getDaysOfStock().get("1d"), is(closeTo(quantity / 24.0, 0.5)));
+    }
+
+    @Test
+    void whenStockIsOnlyIncrementedThenNothingIsConsumed() throws BeerNotFoundException {
+        //Given
+        long start = NOW.toEpochMilli() - HOUR;
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().quantity(10).build().toBeerDTO(), start, false);
+
+        //When
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().quantity(20).build().toBeerDTO(), NOW.toEpochMilli(), false);
+
+        //Then
+        BeerConsumptionDTO consumption = beerConsumptionTracker.findById(1L);
+        assertThat(consumption.getQuantity(), is(equalTo(20)));
+        assertThat(consumption.getRatesPerDay().get("1h"), is(equalTo(0.0)));
+        assertThat(consumption.getDaysOfStock().get("1h"), is(nullValue()));
+    }
+
+    @Test
+    void whenQuantityIsSetLowerThenNothingIsConsumedAndLaterDecrementsCountFromTheNewQuantity() throws BeerNotFoundException {
+        //Given
+        long start = NOW.toEpochMilli() - HOUR;
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().max(500).quantity(500).build().toBeerDTO(), start, false);
+
+        //When
+        beerConsumptionTracker.onEvent(eventOf(BeerDTOBuilder.builder().max(500).quantity(100).build().toBeerDTO(), BeerOperation.SET_QUANTITY, start), true);
+        beerConsumptionTracker.onEvent(eventOf(BeerDTOBuilder.builder().max(500).quantity(90).build().toBeerDTO(), BeerOperation.DECREMENT, NOW.toEpochMilli()), true);
+
+        //Then
+        BeerConsumptionDTO consumption = beerConsumptionTracker.findById(1L);
+        assertThat(consumption.getQuantity(), is(equalTo(90)));
+        assertThat(consumption.getRatesPerDay().get("1d"), is(closeTo(10.0, 0.01)));
+    }
+
+    @Test
+    void whenAnUpsertLowersTheQuantityThenNothingIsConsumed() throws BeerNotFoundException {
+        //Given
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().max(500).quantity(500).build().toBeerDTO(), NOW.toEpochMilli() - HOUR, false);
+
+        //When
+        beerConsumptionTracker.onEvent(eventOf(BeerDTOBuilder.builder().max(500).quantity(0).build().toBeerDTO(), null, NOW.toEpochMilli()), true);
+
+        //Then
+        BeerConsumptionDTO consumption = beerConsumptionTracker.findById(1L);
+        assertThat(consumption.getQuantity(), is(equalTo(0)));
+        assertThat(consumption.getRatesPerDay().get("1h"), is(equalTo(0.0)));
+    }
+
+    @Test
+    void whenBeersAreTrackedThenTheyAreListedByType() {
+        //Given
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().id(1L).type(BeerType.LAGER).build().toBeerDTO(), NOW.toEpochMilli(), false);
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().id(2L).name("Guinness").type(BeerType.STOUT).build().toBeerDTO(), NOW.toEpochMilli(), false);
+
+        //When
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().id(1L).type(BeerType.IPA).build().toBeerDTO(), NOW.toEpochMilli(), false);
+
+        //Then
+        assertThat(beerConsumptionTracker.findByType(BeerType.LAGER), is(empty()));
+        assertThat(beerConsumptionTracker.findByType(BeerType.IPA), hasSize(1));
+        assertThat(beerConsumptionTracker.findByType(BeerType.STOUT).get(0).getName(), is(equalTo("Guinness")));
+    }
+
+    @Test
+    void whenBeerIsRemovedThenConsumptionIsNotFound() {
+        //Given
+        beerConsumptionTracker.update(BeerDTOBuilder.builder().build().toBeerDTO(), NOW.toEpochMilli(), false);
+
+        //When
+        beerConsumptionTracker.remove(1L);
+
+        //Then
+        assertThrows(BeerNotFoundException.class, () -> beerConsumptionTracker.findById(1L));
+        assertThat(beerConsumptionTracker.findByType(BeerType.LAGER), is(empty()));
+    }
+
+    private static BeerEvent eventOf(BeerDTO beer, BeerOperation operation, long timestamp) {
+        BeerEvent event = mock(BeerEvent.class);
+        when(event.getType()).thenReturn(BeerChangeType.UPDATED);
+        when(event.getBeer()).thenReturn(beer);
+        when(event.getOperation()).thenReturn(operation);
+        when(event.getTimestamp()).thenReturn(timestamp);
+        return event;
+    }
+}
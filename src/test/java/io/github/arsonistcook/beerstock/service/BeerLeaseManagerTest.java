@@ -0,0 +1,185 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.repository.BeerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs two lease managers against the same database, as two instances of the application would.
+ */
+@DataJpaTest
+class BeerLeaseManagerTest {
+    private static final int PARTITIONS = 4;
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(15);
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(6);
+
+    @Autowired
+    private BeerLeaseRepository beerLeaseRepository;
+
+    private MutableClock clock;
+    private BeerLeaseManager firstInstance;
+    private BeerLeaseManager secondInstance;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock(Instant.parse("2021-07-01T10:00:00Z"));
+        firstInstance = new BeerLeaseManager(beerLeaseRepository, clock, "first", "http://first:8080", PARTITIONS, LEASE_DURATION, SAFETY_MARGIN);
+        secondInstance = new BeerLeaseManager(beerLeaseRepository, clock, "second", "http://second:8080", PARTITIONS, LEASE_DURATION, SAFETY_MARGIN);
+    }
+
+    @Test
+    void whenASingleInstanceIsRunningThenItOwnsAllPartitions() {
+        //Given
+
+        //When
+        firstInstance.renewLeases();
+
+        //Then
+        assertThat(ownedBy(firstInstance), is(equalTo((long) PARTITIONS)));
+    }
+
+    @Test
+    void whenASecondInstanceJoinsThenPartitionsAreSplitBetweenThem() {
+        //Given
+        firstInstance.renewLeases();
+
+        //When
+        secondInstance.renewLeases();
+        firstInstance.renewLeases();
+        secondInstance.renewLeases();
+
+        //Then
+        assertThat(ownedBy(firstInstance), is(equalTo((long) PARTITIONS / 2)));
+        assertThat(ownedBy(secondInstance), is(equalTo((long) PARTITIONS / 2)));
+        LongStream.range(0, PARTITIONS).forEach(beerId ->
+                assertThat(firstInstance.isOwner(beerId), is(not(secondInstance.isOwner(beerId)))));
+        LongStream.range(0, PARTITIONS).filter(secondInstance::isOwner).forEach(beerId ->
+                assertThat(secondInstance.ownerOf(beerId).get().getOwnerUrl(), is(equalTo("http://second:8080"))));
+    }
+
+    @Test
+    void whenAnInstanceStopsRenewingThenTheOtherTakesOverAfterLeaseExpiry() {
+        //Given
+        firstInstance.renewLeases();
+        secondInstance.renewLeases();
+        firstInstance.renewLeases();
+        secondInstance.renewLeases();
+
+        //When
+        clock.advance(LEASE_DURATION.plusSeconds(1));
+        secondInstance.renewLeases();
+
+        //Then
+        assertThat(ownedBy(firstInstance), is(equalTo(0L)));
+        assertThat(ownedBy(secondInstance), is(equalTo((long) PARTITIONS)));
+    }
+
+    @Test
+    void whenAnInstanceReleasesItsLeasesThenTheOtherTakesOverWithoutWaiting() {
+        //Given
+        firstInstance.renewLeases();
+        secondInstance.renewLeases();
+        firstInstance.renewLeases();
+
+        //When
+        firstInstance.releaseLeases();
+        clock.advance(Duration.ofSeconds(1));
+        secondInstance.renewLeases();
+
+        //Then
+        assertThat(ownedBy(secondInstance), is(equalTo((long) PARTITIONS)));
+    }
+
+    @Test
+    void whenALeaseIsCloseToExpiryThenItsOwnerStopsServingItBeforeTheDatabaseExpiry() {
+        //Given
+        firstInstance.renewLeases();
+
+        //When
+        clock.advance(LEASE_DURATION.minus(SAFETY_MARGIN).minusSeconds(1));
+        long ownedBeforeMargin = ownedBy(firstInstance);
+        clock.advance(Duration.ofSeconds(1));
+
+        //Then
+        assertThat(ownedBeforeMargin, is(equalTo((long) PARTITIONS)));
+        assertThat(ownedBy(firstInstance), is(equalTo(0L)));
+        assertThat(firstInstance.ownerOf(0L).isPresent(), is(true));
+    }
+
+    @Test
+    void whenAnInstanceGivesBackOrReleasesAPartitionThenItHasStoppedServingItBeforeTheRelease() {
+        //Given
+        List<String> releasedWhileOwned = new CopyOnWriteArrayList<>();
+        BeerLeaseRepository observedRepository = mock(BeerLeaseRepository.class, delegatesTo(beerLeaseRepository));
+        BeerLeaseManager observedInstance = new BeerLeaseManager(observedRepository, clock, "first", "http://first:8080", PARTITIONS, LEASE_DURATION, SAFETY_MARGIN);
+        doAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            if (name.startsWith(BeerLeaseManager.PARTITION_PREFIX)
+                    && observedInstance.isOwner(Long.valueOf(name.substring(BeerLeaseManager.PARTITION_PREFIX.length())))) {
+                releasedWhileOwned.add(name);
+            }
+            return beerLeaseRepository.release(name, invocation.getArgument(1), invocation.getArgument(2));
+        }).when(observedRepository).release(any(), eq("first"), any());
+        observedInstance.renewLeases();
+        secondInstance.renewLeases();
+
+        //When
+        observedInstance.renewLeases();
+        long ownedAfterGivingBack = ownedBy(observedInstance);
+        observedInstance.releaseLeases();
+
+        //Then
+        assertThat(ownedAfterGivingBack, is(equalTo((long) PARTITIONS / 2)));
+        assertThat(releasedWhileOwned, is(empty()));
+    }
+
+    private long ownedBy(BeerLeaseManager instance) {
+        return LongStream.range(0, PARTITIONS).filter(instance::isOwner).count();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
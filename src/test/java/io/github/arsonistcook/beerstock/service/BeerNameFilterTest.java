@@ -0,0 +1,82 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class BeerNameFilterTest {
+    private static final int EXPECTED_NAMES = 1000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Test
+    void whenFilterIsNotRebuiltYetThenEveryNameMightBeRegistered() {
+        //Given
+        BeerNameFilter beerNameFilter = new BeerNameFilter(beerRepository, EXPECTED_NAMES, FALSE_POSITIVE_RATE);
+
+        //When
+
+        //Then
+        assertThat(beerNameFilter.mightContain("Brahma"), is(true));
+    }
+
+    @Test
+    void whenNameIsRegisteredThenItMightBeContained() {
+        //Given
+        BeerNameFilter beerNameFilter = new BeerNameFilter(beerRepository, EXPECTED_NAMES, FALSE_POSITIVE_RATE);
+
+        //When
+        beerNameFilter.rebuild(List.of("Brahma", "Skol"));
+        beerNameFilter.add("Bohemia");
+
+        //Then
+        assertThat(beerNameFilter.mightContain("Brahma"), is(true));
+        assertThat(beerNameFilter.mightContain("Skol"), is(true));
+        assertThat(beerNameFilter.mightContain("Bohemia"), is(true));
+    }
+
+    @Test
+    void whenNameIsRemovedThenItIsDefinitelyAbsent() {
+        //Given
+        BeerNameFilter beerNameFilter = new BeerNameFilter(beerRepository, EXPECTED_NAMES, FALSE_POSITIVE_RATE);
+        beerNameFilter.rebuild(List.of("Brahma"));
+
+        //When
+        beerNameFilter.remove("Brahma");
+
+        //Then
+        assertThat(beerNameFilter.mightContain("Brahma"), is(false));
+    }
+
+    @Test
+    void whenFilterIsAtCapacityThenFalsePositiveRateStaysNearTheConfiguredOne() {
+        //Given
+        BeerNameFilter beerNameFilter = new BeerNameFilter(beerRepository, EXPECTED_NAMES, FALSE_POSITIVE_RATE);
+        beerNameFilter.rebuild(List.of());
+
+        //When
+        for (int i = 0; i < EXPECTED_NAMES; i++) {
+            beerNameFilter.add("Registered " + i);
+        }
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (beerNameFilter.mightContain("Unknown " + i)) {
+                falsePositives++;
+            }
+        }
+
+        //Then
+        assertThat(beerNameFilter.expectedFalsePositiveRate(), is(lessThan(FALSE_POSITIVE_RATE * 1.1)));
+        assertThat(falsePositives / 10_000.0, is(lessThan(FALSE_POSITIVE_RATE * 3)));
+    }
+}
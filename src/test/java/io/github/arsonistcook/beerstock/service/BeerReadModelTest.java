@@ -0,0 +1,245 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.mapper.BeerMapper;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+class BeerReadModelTest {
+    private static final long MAX_WAIT_MILLIS = 0;
+    private static final long MAX_STALENESS_MILLIS = 5000;
+
+    private final BeerRepository beerRepository = mock(BeerRepository.class);
+    private final BeerChangeFeed beerChangeFeed = mock(BeerChangeFeed.class);
+    private final Clock clock = mock(Clock.class);
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Test
+    void whenReadModelIsReloadedThenItServesTheRepositoryContent() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerReadModel beerReadModel = new BeerReadModel(beerRepository, beerChangeFeed, clock, MAX_WAIT_MILLIS, MAX_STALENESS_MILLIS, true);
+
+        //When
+        when(beerChangeFeed.lastSequence()).thenReturn(5L);
+        when(beerRepository.findAll()).thenReturn(List.of(beerMapper.toModel(beerDTO)));
+        beerReadModel.reload();
+
+        //Then
+        assertThat(beerReadModel.isReady(), is(true));
+        assertThat(beerReadModel.watermark(), is(5L));
+        assertThat(beerReadModel.findById(beerDTO.getId()), is(Optional.of(beerDTO)));
+        assertThat(beerReadModel.findByName(beerDTO.getName()), is(Optional.of(beerDTO)));
+        assertThat(beerReadModel.findByType(beerDTO.getType()), contains(beerDTO));
+        assertThat(beerReadModel.awaitSequence(5L), is(true));
+    }
+
+    @Test
+    void whenChangesArriveThenTheyAreVisibleAtTheEndOfTheBatch() {
+        //Given
+        BeerDTO brahma = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+        BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").type(BeerType.STOUT).build().toBeerDTO();
+        BeerReadModel beerReadModel = loadedReadModel();
+
+        //When
+        beerReadModel.apply(1L, BeerChangeType.CREATED, brahma.getId(), brahma, false);
+        List<BeerDTO> beforeEndOfBatch = beerReadModel.findAll();
+        beerReadModel.apply(2L, BeerChangeType.CREATED, skol.getId(), skol, true);
+
+        //Then
+        assertThat(beforeEndOfBatch, is(empty()));
+        assertThat(beerReadModel.findAll(), contains(brahma, skol));
+        assertThat(beerReadModel.findByType(BeerType.STOUT), contains(skol));
+        assertThat(beerReadModel.watermark(), is(2L));
+    }
+
+    @Test
+    void whenSequencesArriveOutOfOrderThenWatermarkWaitsForTheGap() {
+        //Given
+        BeerDTO brahma = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+        BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        BeerReadModel beerReadModel = loadedReadModel();
+
+        //When
+        beerReadModel.apply(2L, BeerChangeType.CREATED, skol.getId(), skol, true);
+        long watermarkWithGap = beerReadModel.watermark();
+        boolean caughtUpWithGap = beerReadModel.awaitSequence(2L);
+        beerReadModel.apply(1L, BeerChangeType.CREATED, brahma.getId(), brahma, true);
+
+        //Then
+        assertThat(watermarkWithGap, is(0L));
+        assertThat(caughtUpWithGap, is(false));
+        assertThat(beerReadModel.watermark(), is(2L));
+        assertThat(beerReadModel.awaitSequence(2L), is(true));
+    }
+
+    @Test
+    void whenSequenceIsAheadOfTheChangeFeedThenItIsNotWaitedFor() {
+        //Given
+        when(beerChangeFeed.lastSequence()).thenReturn(0L);
+        when(beerRepository.findAll()).thenReturn(List.of());
+        BeerReadModel beerReadModel = new BeerReadModel(beerRepository, beerChangeFeed, clock, 10_000, MAX_STALENESS_MILLIS, true);
+        beerReadModel.reload();
+
+        //When
+        long start = System.nanoTime();
+        boolean caughtUp = beerReadModel.awaitSequence(Long.MAX_VALUE);
+
+        //Then
+        assertThat(caughtUp, is(false));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1_000L)));
+    }
+
+    @Test
+    void whenOtherInstancesWriteToTheDatabaseThenTheLoadedModelDoesNotServeReads() {
+        //Given
+        when(beerChangeFeed.lastSequence()).thenReturn(0L);
+        when(beerRepository.findAll()).thenReturn(List.of());
+        BeerReadModel beerReadModel = new BeerReadModel(beerRepository, beerChangeFeed, clock, MAX_WAIT_MILLIS, MAX_STALENESS_MILLIS, false);
+
+        //When
+        beerReadModel.reload();
+
+        //Then
+        assertThat(beerReadModel.isReady(), is(true));
+        assertThat(beerReadModel.isServingReads(), is(false));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItIsRemovedFromEveryIndex() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerReadModel beerReadModel = loadedReadModel();
+        beerReadModel.apply(1L, BeerChangeType.CREATED, beerDTO.getId(), beerDTO, true);
+
+        //When
+        beerReadModel.apply(2L, BeerChangeType.DELETED, beerDTO.getId(), null, true);
+
+        //Then
+        assertThat(beerReadModel.findById(beerDTO.getId()), is(Optional.empty()));
+        assertThat(beerReadModel.findByName(beerDTO.getName()), is(Optional.empty()));
+        assertThat(beerReadModel.findByType(beerDTO.getType()), is(empty()));
+    }
+
+    @Test
+    void whenChangesAlreadyLoadedArriveThenTheyAreIgnored() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(30).build().toBeerDTO();
+        BeerDTO staleBeerDTO = BeerDTOBuilder.builder().quantity(10).build().toBeerDTO();
+        when(beerChangeFeed.lastSequence()).thenReturn(3L);
+        when(beerRepository.findAll()).thenReturn(List.of(beerMapper.toModel(beerDTO)));
+        BeerReadModel beerReadModel = new BeerReadModel(beerRepository, beerChangeFeed, clock, MAX_WAIT_MILLIS, MAX_STALENESS_MILLIS, true);
+        beerReadModel.reload();
+
+        //When
+        beerReadModel.apply(2L, BeerChangeType.UPDATED, staleBeerDTO.getId(), staleBeerDTO, true);
+
+        //Then
+        assertThat(beerReadModel.findById(beerDTO.getId()), is(Optional.of(beerDTO)));
+        assertThat(beerReadModel.watermark(), is(3L));
+    }
+
+    @Test
+    void whenGapIsOlderThanTheStalenessBoundThenReadModelIsReloaded() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerReadModel beerReadModel = loadedReadModel();
+        when(clock.millis()).thenReturn(1_000L, 1_000L + MAX_STALENESS_MILLIS + 1);
+        beerReadModel.apply(2L, BeerChangeType.CREATED, beerDTO.getId(), beerDTO, true);
+
+        //When
+        when(beerChangeFeed.lastSequence()).thenReturn(2L);
+        when(beerRepository.findAll()).thenReturn(List.of(beerMapper.toModel(beerDTO)));
+        beerReadModel.reloadIfStale();
+
+        //Then
+        assertThat(beerReadModel.watermark(), is(2L));
+        assertThat(beerReadModel.findById(beerDTO.getId()), is(Optional.of(beerDTO)));
+        verify(beerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void whenChangesArriveWhileReloadingThenTheyAreVisibleAndKeptAfterTheReload() throws Exception {
+        //Given
+        BeerDTO brahma = BeerDTOBuilder.builder().id(1L).name("Brahma").build().toBeerDTO();
+        BeerDTO skol = BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO();
+        BeerReadModel beerReadModel = loadedReadModel();
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(beerRepository.findAll()).thenAnswer(invocation -> {
+            querying.countDown();
+            releaseQuery.await();
+            return List.of(beerMapper.toModel(brahma));
+        });
+
+        //When
+        Thread reload = new Thread(beerReadModel::reload);
+        reload.start();
+        assertThat(querying.await(5, TimeUnit.SECONDS), is(true));
+        beerReadModel.apply(1L, BeerChangeType.CREATED, brahma.getId(), brahma, false);
+        beerReadModel.apply(2L, BeerChangeType.CREATED, skol.getId(), skol, true);
+        long watermarkDuringReload = beerReadModel.watermark();
+        releaseQuery.countDown();
+        reload.join(5_000);
+
+        //Then
+        assertThat(watermarkDuringReload, is(2L));
+        assertThat(beerReadModel.watermark(), is(2L));
+        assertThat(beerReadModel.findAll(), contains(brahma, skol));
+    }
+
+    @Test
+    void whenABatchUpdatesSeveralBeersThenAListingSeesAllOrNoneOfIt() throws Exception {
+        //Given
+        BeerReadModel beerReadModel = loadedReadModel();
+        beerReadModel.apply(1L, BeerChangeType.CREATED, 1L, BeerDTOBuilder.builder().id(1L).name("Brahma").quantity(0).build().toBeerDTO(), false);
+        beerReadModel.apply(2L, BeerChangeType.CREATED, 2L, BeerDTOBuilder.builder().id(2L).name("Skol").quantity(0).build().toBeerDTO(), true);
+        int batches = 20_000;
+        List<List<BeerDTO>> tornListings = new CopyOnWriteArrayList<>();
+        Thread reader = new Thread(() -> {
+            int quantity = 0;
+            while (quantity < batches) {
+                List<BeerDTO> listing = beerReadModel.findAll();
+                quantity = listing.get(0).getQuantity();
+                if (listing.get(1).getQuantity() != quantity) {
+                    tornListings.add(listing);
+                }
+            }
+        });
+        reader.start();
+
+        //When
+        for (int quantity = 1; quantity <= batches; quantity++) {
+            long sequence = 2L * quantity + 1;
+            beerReadModel.apply(sequence, BeerChangeType.UPDATED, 1L, BeerDTOBuilder.builder().id(1L).name("Brahma").quantity(quantity).build().toBeerDTO(), false);
+            beerReadModel.apply(sequence + 1, BeerChangeType.UPDATED, 2L, BeerDTOBuilder.builder().id(2L).name("Skol").quantity(quantity).build().toBeerDTO(), true);
+        }
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+
+        //Then
+        assertThat(reader.isAlive(), is(false));
+        assertThat(tornListings, is(empty()));
+    }
+
+    private BeerReadModel loadedReadModel() {
+        when(beerChangeFeed.lastSequence()).thenReturn(0L);
+        when(beerRepository.findAll()).thenReturn(List.of());
+        BeerReadModel beerReadModel = new BeerReadModel(beerRepository, beerChangeFeed, clock, MAX_WAIT_MILLIS, MAX_STALENESS_MILLIS, true);
+        beerReadModel.reload();
+        return beerReadModel;
+    }
+}
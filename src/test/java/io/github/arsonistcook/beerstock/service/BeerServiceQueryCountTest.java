@@ -0,0 +1,123 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import io.github.arsonistcook.beerstock.utils.QueryCountUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.github.arsonistcook.beerstock.utils.QueryCountUtils.assertMaxStatements;
+
+/**
+ * Budgets of JDBC statements per BeerService operation, so an extra round trip fails the build.
+ */
+@SpringBootTest(properties = QueryCountUtils.STATEMENT_COUNTER_PROPERTY)
+class BeerServiceQueryCountTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @AfterEach
+    void cleanup() {
+        beerRepository.deleteAll();
+        List<Long> tombstoneIds = beerRepository.findTombstonesDeletedBefore(Instant.now().plusSeconds(60), Integer.MAX_VALUE).stream()
+                .map(tombstone -> ((Number) tombstone[0]).longValue())
+                .collect(Collectors.toList());
+        if (!tombstoneIds.isEmpty()) {
+            beerRepository.purgeTombstones(tombstoneIds);
+        }
+    }
+
+    @Test
+    void whenBeerIsCreatedThenStatementBudgetIsRespected() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).build().toBeerDTO();
+
+        //When
+
+        //Then
+        assertMaxStatements(2, () -> beerService.createBeer(beerDTO));
+    }
+
+    @Test
+    void whenBeerIsFoundByNameThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+
+        //When
+
+        //Then
+        assertMaxStatements(1, () -> beerService.findByName(beerDTO.getName(), beerService.readToken(), BeerField.ALL));
+    }
+
+    @Test
+    void whenBeerStockIsIncrementedThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+
+        //When
+
+        //Then
+        assertMaxStatements(2, () -> beerService.increment(beerDTO.getId(), 10));
+    }
+
+    @Test
+    void whenBeerStockIsDecrementedThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+
+        //When
+
+        //Then
+        assertMaxStatements(2, () -> beerService.decrement(beerDTO.getId(), 10));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+
+        //When
+
+        //Then
+        assertMaxStatements(1, () -> beerService.deleteById(beerDTO.getId()));
+    }
+
+    @Test
+    void whenBeerStockIsSetThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+
+        //When
+
+        //Then
+        assertMaxStatements(2, () -> beerService.setQuantity(beerDTO.getId(), 42));
+    }
+
+    @Test
+    void whenBeersAreUpsertedThenStatementBudgetIsRespected() throws Exception {
+        //Given
+        beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+        BeerUpsertDTO beerUpsertDTO = new BeerUpsertDTO(List.of(
+                BeerDTOBuilder.builder().id(null).quantity(30).build().toBeerDTO(),
+                BeerDTOBuilder.builder().id(null).name("Guinness").build().toBeerDTO()));
+
+        //When
+
+        //Then
+        // live names locked and read before the MERGE, then the MERGE, then the upserted rows read back
+        assertMaxStatements(3, () -> beerService.upsertByName(beerUpsertDTO));
+    }
+}
@@ -1,20 +1,45 @@
 package io.github.arsonistcook.beerstock.service;
 
 import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerChangeDTO;
 import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerFilterDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupDTO;
+import io.github.arsonistcook.beerstock.dto.BeerLookupResultDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
 import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerChangeType;
+import io.github.arsonistcook.beerstock.enums.BeerField;
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.github.arsonistcook.beerstock.event.BeerEventBus;
 import io.github.arsonistcook.beerstock.exception.*;
+import io.github.arsonistcook.beerstock.journal.BeerJournal;
 import io.github.arsonistcook.beerstock.mapper.BeerMapper;
 import io.github.arsonistcook.beerstock.repository.BeerRepository;
 import org.assertj.core.util.Lists;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -25,10 +50,34 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class BeerServiceTest {
     private static final long INVALID_BEER_ID = 1L;
+    // the constraint names Hibernate's H2 dialect extracts from the driver messages
+    private static final String UNIQUE_NAME_VIOLATED = "PUBLIC.UK_BEER_NAME_INDEX_2 ON PUBLIC.BEER(NAME NULLS FIRST) VALUES ( /* 1 */ 'Brahma' )";
+    private static final String CHECK_VIOLATED = "CONSTRAINT_1F";
 
     @Mock
     private BeerRepository beerRepository;
 
+    @Mock
+    private BeerChangeFeed beerChangeFeed;
+
+    @Mock
+    private BeerNameFilter beerNameFilter;
+
+    @Mock
+    private BeerEventBus beerEventBus;
+
+    @Mock
+    private BeerConsumptionTracker beerConsumptionTracker;
+
+    @Mock
+    private BeerHotKeyTracker beerHotKeyTracker;
+
+    @Mock
+    private BeerReadModel beerReadModel;
+
+    @Mock
+    private BeerJournal beerJournal;
+
     private BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     @InjectMocks
@@ -41,6 +90,7 @@ class BeerServiceTest {
         Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //When
+        when(beerNameFilter.mightContain(expectedBeerDTO.getName())).thenReturn(true);
         when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
         when(beerRepository.save(expectedSavedBeer)).thenReturn(expectedSavedBeer);
 
@@ -49,6 +99,7 @@ class BeerServiceTest {
         assertThat(savedBeer.getName(), is(equalTo(expectedSavedBeer.getName())));
         assertThat(savedBeer.getBrand(), is(equalTo(expectedSavedBeer.getBrand())));
         assertThat(savedBeer.getType(), is(equalTo(expectedSavedBeer.getType())));
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.CREATED, savedBeer.getId(), savedBeer);
     }
 
     @Test
@@ -58,12 +109,58 @@ class BeerServiceTest {
         Beer beerAlreadySaved = beerMapper.toModel(expectedSavedBeerDTO);
 
         //When
+        when(beerNameFilter.mightContain(expectedSavedBeerDTO.getName())).thenReturn(true);
         when(beerRepository.findByName(expectedSavedBeerDTO.getName())).thenReturn(Optional.of(beerAlreadySaved));
 
         //Then
         assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedSavedBeerDTO));
     }
 
+    @Test
+    void whenNameIsDefinitelyNotRegisteredThenBeerIsCreatedWithoutLookup() throws BeerAlreadyRegisteredException {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerNameFilter.mightContain(expectedBeerDTO.getName())).thenReturn(false);
+        when(beerRepository.save(expectedSavedBeer)).thenReturn(expectedSavedBeer);
+
+        //Then
+        beerService.createBeer(expectedBeerDTO);
+        verify(beerRepository, never()).findByName(expectedBeerDTO.getName());
+        verify(beerNameFilter, times(1)).add(expectedBeerDTO.getName());
+    }
+
+    @Test
+    void whenUniqueConstraintIsViolatedThenAnExceptionShouldBeThrown() {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerNameFilter.mightContain(expectedBeerDTO.getName())).thenReturn(false);
+        when(beerRepository.save(expectedSavedBeer)).thenThrow(violationOf(UNIQUE_NAME_VIOLATED));
+
+        //Then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
+    }
+
+    @Test
+    void whenAnotherConstraintIsViolatedThenItIsNotReportedAsAlreadyRegisteredNorPurgesATombstone() {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerNameFilter.mightContain(expectedBeerDTO.getName())).thenReturn(false);
+        when(beerRepository.save(expectedSavedBeer)).thenThrow(violationOf(CHECK_VIOLATED));
+
+        //Then
+        assertThrows(DataIntegrityViolationException.class, () -> beerService.createBeer(expectedBeerDTO));
+        verify(beerRepository, never()).purgeTombstoneByName(expectedBeerDTO.getName());
+    }
+
     @Test
     void whenValidBeerNameIsGivenThenReturnABeer() throws BeerNotFoundException {
         //Given
@@ -74,10 +171,24 @@ class BeerServiceTest {
         when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeer));
 
         //Then
-        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName());
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName(), 0L, BeerField.ALL);
         assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
     }
 
+    @Test
+    void whenBeerIsLookedUpByNameThenTheNameIsRecordedAsAHotKey() throws BeerNotFoundException {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+
+        //When
+        when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeer));
+        beerService.findByName(expectedFoundBeerDTO.getName(), 0L, BeerField.ALL);
+
+        //Then
+        verify(beerHotKeyTracker).record(BeerOperation.FIND_BY_NAME, expectedFoundBeerDTO.getName());
+    }
+
     @Test
     void whenNotRegisteredBeerNameIsGivenThenThrowAnException() throws BeerNotFoundException {
         //Given
@@ -87,7 +198,7 @@ class BeerServiceTest {
         when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.empty());
 
         //Then
-        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName()));
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName(), 0L, BeerField.ALL));
     }
 
     @Test
@@ -100,11 +211,120 @@ class BeerServiceTest {
         when(beerRepository.findAll()).thenReturn(List.of(expectedFoundBeer));
 
         //Then
-       List<BeerDTO> foundBeersList= beerService.listAll();
+       List<BeerDTO> foundBeersList= beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL);
        assertThat(foundBeersList, is(not(empty())));
        assertThat(foundBeersList.get(0), is(equalTo(expectedFoundBeerDTO)));
     }
 
+    @Test
+    void whenReadModelHasCaughtUpThenBeerIsFoundWithoutTheRepository() throws BeerNotFoundException {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerReadModel.isServingReads()).thenReturn(true);
+        when(beerReadModel.awaitSequence(7L)).thenReturn(true);
+        when(beerReadModel.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeerDTO));
+
+        //Then
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName(), 7L, BeerField.ALL);
+        assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenReadModelIsBehindTheReadTokenThenTheRepositoryIsUsed() throws BeerNotFoundException {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+
+        //When
+        when(beerReadModel.isServingReads()).thenReturn(true);
+        when(beerReadModel.awaitSequence(7L)).thenReturn(false);
+        when(beerRepository.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeer));
+
+        //Then
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName(), 7L, BeerField.ALL);
+        assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
+        verify(beerReadModel, never()).findByName(expectedFoundBeerDTO.getName());
+    }
+
+    @Test
+    void whenReadModelHasCaughtUpThenBeersAreListedWithoutTheRepository() {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerReadModel.isServingReads()).thenReturn(true);
+        when(beerReadModel.awaitSequence(0L)).thenReturn(true);
+        when(beerReadModel.findAll()).thenReturn(List.of(expectedFoundBeerDTO));
+
+        //Then
+        assertThat(beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL), contains(expectedFoundBeerDTO));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenReadModelServesReadsThenTheChangeCursorDoesNotPassItsWatermark() {
+        //When
+        when(beerChangeFeed.lastSequence()).thenReturn(9L);
+        when(beerReadModel.isServingReads()).thenReturn(true);
+        when(beerReadModel.watermark()).thenReturn(7L);
+
+        //Then
+        assertThat(beerService.changeCursor(), is(equalTo(7L)));
+        verify(beerReadModel, never()).awaitSequence(anyLong());
+    }
+
+    @Test
+    void whenListBeerIsCalledWithAFilterThenTheRepositoryIsQueried() {
+        //Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+        BeerFilterDTO filter = BeerFilterDTO.builder().brand(expectedFoundBeerDTO.getBrand()).sort("quantity,desc").build();
+
+        //When
+        when(beerRepository.findAll(ArgumentMatchers.<Specification<Beer>>any(),
+                eq(Sort.by(Sort.Direction.DESC, "quantity").and(Sort.by("id")))))
+                .thenReturn(List.of(expectedFoundBeer));
+
+        //Then
+        assertThat(beerService.listAll(filter, 0L, BeerField.ALL), contains(expectedFoundBeerDTO));
+        verifyNoInteractions(beerReadModel);
+    }
+
+    @Test
+    void whenListBeerIsCalledWithFieldsThenOnlyTheirColumnsAreQueried() {
+        //Given
+        Set<BeerField> fields = EnumSet.of(BeerField.ID, BeerField.NAME);
+        BeerDTO expectedFoundBeerDTO = BeerDTO.builder().id(1L).name("Brahma").build();
+        BeerFilterDTO filter = BeerFilterDTO.builder().brand("Ambev").build();
+
+        //When
+        when(beerRepository.findFields(ArgumentMatchers.<Specification<Beer>>any(), eq(Sort.by("id")), eq(fields)))
+                .thenReturn(List.of(expectedFoundBeerDTO));
+
+        //Then
+        assertThat(beerService.listAll(filter, 0L, fields), contains(expectedFoundBeerDTO));
+        verify(beerRepository, never()).findAll(ArgumentMatchers.<Specification<Beer>>any(), ArgumentMatchers.<Sort>any());
+    }
+
+    @Test
+    void whenReadModelHasCaughtUpThenFieldsAreProjectedFromIt() throws BeerNotFoundException {
+        //Given
+        BeerDTO foundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerReadModel.isServingReads()).thenReturn(true);
+        when(beerReadModel.awaitSequence(0L)).thenReturn(true);
+        when(beerReadModel.findByName(foundBeerDTO.getName())).thenReturn(Optional.of(foundBeerDTO));
+
+        //Then
+        BeerDTO projectedBeerDTO = beerService.findByName(foundBeerDTO.getName(), 0L, EnumSet.of(BeerField.NAME, BeerField.QUANTITY));
+        assertThat(projectedBeerDTO, is(equalTo(BeerDTO.builder().name(foundBeerDTO.getName()).quantity(foundBeerDTO.getQuantity()).build())));
+        verifyNoInteractions(beerRepository);
+    }
+
     @Test
     void whenListBeerIsCalledThenReturnAnEmptyList() {
         //Given
@@ -113,24 +333,59 @@ class BeerServiceTest {
         when(beerRepository.findAll()).thenReturn(Lists.emptyList());
 
         //Then
-        List<BeerDTO> foundBeersList= beerService.listAll();
+        List<BeerDTO> foundBeersList= beerService.listAll(new BeerFilterDTO(), 0L, BeerField.ALL);
         assertThat(foundBeersList, is(empty()));
     }
 
+    @Test
+    void whenLookupIsCalledThenResultsAreReturnedInRequestOrder() {
+        //Given
+        BeerDTO foundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer foundBeer = beerMapper.toModel(foundBeerDTO);
+        BeerLookupDTO beerLookupDTO = new BeerLookupDTO(List.of(2L, foundBeerDTO.getId()), List.of(foundBeerDTO.getName(), "Unknown"));
+
+        //When
+        when(beerRepository.findAllById(List.of(2L, foundBeerDTO.getId()))).thenReturn(List.of(foundBeer));
+        when(beerRepository.findByNameIn(List.of(foundBeerDTO.getName(), "Unknown"))).thenReturn(List.of(foundBeer));
+
+        //Then
+        List<BeerLookupResultDTO> results = beerService.lookup(beerLookupDTO);
+        assertThat(results, contains(
+                BeerLookupResultDTO.ofId(2L, null),
+                BeerLookupResultDTO.ofId(foundBeerDTO.getId(), foundBeerDTO),
+                BeerLookupResultDTO.ofName(foundBeerDTO.getName(), foundBeerDTO),
+                BeerLookupResultDTO.ofName("Unknown", null)));
+    }
+
+    @Test
+    void whenLookupHasMoreKeysThanAChunkThenRepositoryIsQueriedInChunks() {
+        //Given
+        List<Long> ids = LongStream.rangeClosed(1, 450).boxed().collect(Collectors.toList());
+
+        //When
+        when(beerRepository.findAllById(anyList())).thenReturn(List.of());
+
+        //Then
+        List<BeerLookupResultDTO> results = beerService.lookup(new BeerLookupDTO(ids, null));
+        assertThat(results, hasSize(ids.size()));
+        verify(beerRepository, times(3)).findAllById(anyList());
+        verify(beerRepository, never()).findByNameIn(anyList());
+    }
+
     @Test
     void whenExclusionIsCalledWithValidIdThenBeerShouldBeDeleted() throws BeerNotFoundException {
         //Given
         BeerDTO expectedToBeDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer expectedToBeDeletedBeer = beerMapper.toModel(expectedToBeDeletedBeerDTO);
 
         //When
-        when(beerRepository.findById(expectedToBeDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedToBeDeletedBeer));
-        doNothing().when(beerRepository).deleteById(expectedToBeDeletedBeerDTO.getId());
+        when(beerRepository.softDeleteById(expectedToBeDeletedBeerDTO.getId())).thenReturn(1);
 
         //Then
         beerService.deleteById(expectedToBeDeletedBeerDTO.getId());
-        verify(beerRepository, times(1)).findById(expectedToBeDeletedBeerDTO.getId());
-        verify(beerRepository, times(1)).deleteById(expectedToBeDeletedBeerDTO.getId());
+        verify(beerRepository, times(1)).softDeleteById(expectedToBeDeletedBeerDTO.getId());
+        verify(beerRepository, never()).findById(expectedToBeDeletedBeerDTO.getId());
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.DELETED, expectedToBeDeletedBeerDTO.getId(), null);
+        verify(beerNameFilter, never()).remove(expectedToBeDeletedBeerDTO.getName());
     }
 
     @Test
@@ -138,43 +393,189 @@ class BeerServiceTest {
         //Given
 
         //When
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(beerRepository.softDeleteById(INVALID_BEER_ID)).thenReturn(0);
 
         //Then
         assertThrows(BeerNotFoundException.class, () -> beerService.deleteById(INVALID_BEER_ID));
+        verifyNoInteractions(beerChangeFeed);
     }
 
     @Test
-    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+    void whenBeerIsCreatedWithTheNameOfADeletedBeerThenTheTombstoneIsReplaced() throws BeerAlreadyRegisteredException {
         //Given
-        BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer beerToIncrement = beerMapper.toModel(beerToIncrementDTO);
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
 
         //When
-        when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerToIncrement));
-        when(beerRepository.save(beerToIncrement)).thenReturn(beerToIncrement);
+        when(beerRepository.save(expectedSavedBeer))
+                .thenThrow(violationOf(UNIQUE_NAME_VIOLATED))
+                .thenReturn(expectedSavedBeer);
+        when(beerRepository.purgeTombstoneByName(expectedBeerDTO.getName())).thenReturn(1);
+
+        //Then
+        BeerDTO createdBeerDTO = beerService.createBeer(expectedBeerDTO);
+        assertThat(createdBeerDTO, is(equalTo(expectedBeerDTO)));
+        verify(beerNameFilter).remove(expectedBeerDTO.getName());
+        verify(beerNameFilter).add(expectedBeerDTO.getName());
+    }
+
+    @Test
+    void whenTheNameIsTakenAgainAfterTheTombstoneIsPurgedThenItIsReportedAsAlreadyRegistered() {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerRepository.save(expectedSavedBeer))
+                .thenThrow(violationOf(UNIQUE_NAME_VIOLATED))
+                .thenThrow(violationOf(UNIQUE_NAME_VIOLATED));
+        when(beerRepository.purgeTombstoneByName(expectedBeerDTO.getName())).thenReturn(1);
 
         //Then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
+        verify(beerNameFilter, never()).add(expectedBeerDTO.getName());
+    }
+
+    @Test
+    void whenTheSaveAfterPurgingTheTombstoneViolatesAnotherConstraintThenItIsNotReportedAsAlreadyRegistered() {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerRepository.save(expectedSavedBeer))
+                .thenThrow(violationOf(UNIQUE_NAME_VIOLATED))
+                .thenThrow(violationOf(CHECK_VIOLATED));
+        when(beerRepository.purgeTombstoneByName(expectedBeerDTO.getName())).thenReturn(1);
+
+        //Then
+        assertThrows(DataIntegrityViolationException.class, () -> beerService.createBeer(expectedBeerDTO));
+        verifyNoInteractions(beerChangeFeed);
+    }
+
+    @Test
+    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        //Given
+        BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         int incrementQuantity = 10;
         int expectedFinalQuantity = beerToIncrementDTO.getQuantity() + incrementQuantity;
+        Beer incrementedBeer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(expectedFinalQuantity).build().toBeerDTO());
+
+        //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), incrementQuantity)).thenReturn(1);
+        when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(incrementedBeer));
+
+        //Then
         BeerDTO beerAfterIncrement = beerService.increment(beerToIncrementDTO.getId(), incrementQuantity);
 
         assertThat(expectedFinalQuantity, is(equalTo(beerAfterIncrement.getQuantity())));
         assertThat(expectedFinalQuantity, is(lessThan(beerToIncrementDTO.getMax())));
+        verify(beerRepository, never()).save(any());
     }
 
     @Test
-    void whenIncrementIsGreaterThanMaxThenThrowAnException() {
+    void whenIncrementIsCalledThenTheRecordedChangeIsPublished() throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        //Given
+        BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(beerToIncrementDTO.getQuantity() + 10).build().toBeerDTO();
+        BeerChangeDTO recordedChange = new BeerChangeDTO(1L, BeerChangeType.UPDATED, beerToIncrementDTO.getId(), incrementedBeerDTO);
+
+        //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), 10)).thenReturn(1);
+        when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerMapper.toModel(incrementedBeerDTO)));
+        when(beerChangeFeed.record(BeerChangeType.UPDATED, beerToIncrementDTO.getId(), incrementedBeerDTO)).thenReturn(recordedChange);
+
+        //Then
+        beerService.increment(beerToIncrementDTO.getId(), 10);
+        verify(beerEventBus, times(1)).publish(recordedChange, BeerOperation.INCREMENT);
+    }
+
+    @Test
+    void whenABeerIsBeingWrittenThenAnotherWriteToItWaitsUntilTheChangeIsRecorded() throws Exception {
         //Given
         BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer beerToIncrement = beerMapper.toModel(beerToIncrementDTO);
+        CountDownLatch recording = new CountDownLatch(1);
+        CountDownLatch releaseRecord = new CountDownLatch(1);
 
         //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), 1)).thenReturn(1);
         when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerToIncrement));
+        when(beerChangeFeed.record(eq(BeerChangeType.UPDATED), eq(beerToIncrementDTO.getId()), any()))
+                .thenAnswer(invocation -> {
+                    recording.countDown();
+                    releaseRecord.await();
+                    return null;
+                })
+                .thenReturn(null);
 
         //Then
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BeerDTO> first = executor.submit(() -> beerService.increment(beerToIncrementDTO.getId(), 1));
+            assertThat(recording.await(5, TimeUnit.SECONDS), is(true));
+            Future<BeerDTO> second = executor.submit(() -> beerService.increment(beerToIncrementDTO.getId(), 1));
+
+            verify(beerRepository, after(100).times(1)).addQuantity(beerToIncrementDTO.getId(), 1);
+            releaseRecord.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            verify(beerRepository, times(2)).addQuantity(beerToIncrementDTO.getId(), 1);
+        } finally {
+            releaseRecord.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenAWriterWaitsForRoomInTheEventRingThenOtherWritesToTheBeerDoNotWaitForIt() throws Exception {
+        //Given
+        BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beerToIncrement = beerMapper.toModel(beerToIncrementDTO);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+
+        //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), 1)).thenReturn(1);
+        when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerToIncrement));
+        doAnswer(invocation -> {
+            flushing.countDown();
+            releaseFlush.await();
+            return null;
+        }).doNothing().when(beerEventBus).flush();
+
+        //Then
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BeerDTO> first = executor.submit(() -> beerService.increment(beerToIncrementDTO.getId(), 1));
+            assertThat(flushing.await(5, TimeUnit.SECONDS), is(true));
+            Future<BeerDTO> second = executor.submit(() -> beerService.increment(beerToIncrementDTO.getId(), 1));
+
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(first.isDone(), is(false));
+            releaseFlush.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            verify(beerEventBus, times(2)).publish(any(), eq(BeerOperation.INCREMENT));
+        } finally {
+            releaseFlush.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenIncrementIsGreaterThanMaxThenThrowAnException() {
+        //Given
+        BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beerToIncrement = beerMapper.toModel(beerToIncrementDTO);
         int incrementQuantity = 85;
+
+        //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), incrementQuantity)).thenReturn(0);
+        when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerToIncrement));
+
+        //Then
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(beerToIncrementDTO.getId(),incrementQuantity));
+        verifyNoInteractions(beerChangeFeed);
     }
 
     @Test
@@ -193,12 +594,13 @@ class BeerServiceTest {
         //Given
         BeerDTO beerToIncrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer beerToIncrement = beerMapper.toModel(beerToIncrementDTO);
+        int incrementQuantity = 45;
 
         //When
+        when(beerRepository.addQuantity(beerToIncrementDTO.getId(), incrementQuantity)).thenReturn(0);
         when(beerRepository.findById(beerToIncrementDTO.getId())).thenReturn(Optional.of(beerToIncrement));
 
         //Then
-        int incrementQuantity = 45;
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(beerToIncrementDTO.getId(),incrementQuantity));
     }
 
@@ -207,6 +609,7 @@ class BeerServiceTest {
         //Given
         int quantityToIncrement = 10;
         //When
+        when(beerRepository.addQuantity(INVALID_BEER_ID, quantityToIncrement)).thenReturn(0);
         when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         //Then
@@ -219,19 +622,20 @@ class BeerServiceTest {
     void whenDecrementIsCalledThenDecrementBeerStock() throws BeerNotFoundException, BeerStockNegativeArgumentException, BeerStockMinimumException {
         //Given
         BeerDTO beerToDecrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer beerToDecrement = beerMapper.toModel(beerToDecrementDTO);
+        int decrementQuantity = 10;
+        int expectedFinalQuantity = beerToDecrementDTO.getQuantity() - decrementQuantity;
+        Beer decrementedBeer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(expectedFinalQuantity).build().toBeerDTO());
 
         //When
-        when(beerRepository.findById(beerToDecrementDTO.getId())).thenReturn(Optional.of(beerToDecrement));
-        when(beerRepository.save(beerToDecrement)).thenReturn(beerToDecrement);
+        when(beerRepository.addQuantity(beerToDecrementDTO.getId(), -decrementQuantity)).thenReturn(1);
+        when(beerRepository.findById(beerToDecrementDTO.getId())).thenReturn(Optional.of(decrementedBeer));
 
         //Then
-        int decrementQuantity = 10;
-        int expectedFinalQuantity = beerToDecrementDTO.getQuantity() - decrementQuantity;
         BeerDTO beerAfterDecrement = beerService.decrement(beerToDecrementDTO.getId(), decrementQuantity);
 
         assertThat(expectedFinalQuantity, is(equalTo(beerAfterDecrement.getQuantity())));
         assertThat(expectedFinalQuantity, is(not(lessThan(0))));
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.UPDATED, beerToDecrementDTO.getId(), beerAfterDecrement);
     }
 
     @Test
@@ -250,12 +654,13 @@ class BeerServiceTest {
         //Given
         BeerDTO beerToDecrementDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer beerToDecrement = beerMapper.toModel(beerToDecrementDTO);
+        int decrementQuantity = 45;
 
         //When
+        when(beerRepository.addQuantity(beerToDecrementDTO.getId(), -decrementQuantity)).thenReturn(0);
         when(beerRepository.findById(beerToDecrementDTO.getId())).thenReturn(Optional.of(beerToDecrement));
 
         //Then
-        int decrementQuantity = 45;
         assertThrows(BeerStockMinimumException.class, () -> beerService.decrement(beerToDecrementDTO.getId(),decrementQuantity));
     }
 
@@ -264,9 +669,105 @@ class BeerServiceTest {
         //Given
         int quantityToDecrement = 10;
         //When
+        when(beerRepository.addQuantity(INVALID_BEER_ID, -quantityToDecrement)).thenReturn(0);
         when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
         //Then
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
-}
\ No newline at end of file
+
+    //Absolute stock
+
+    @Test
+    void whenSetQuantityIsCalledThenStockIsSetWithASingleUpdate() throws BeerNotFoundException, BeerStockExceededException, BeerStockNegativeArgumentException {
+        //Given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().quantity(42).build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //When
+        when(beerRepository.updateQuantity(expectedBeerDTO.getId(), 42)).thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+
+        //Then
+        BeerDTO updatedBeerDTO = beerService.setQuantity(expectedBeerDTO.getId(), 42);
+        assertThat(updatedBeerDTO, is(equalTo(expectedBeerDTO)));
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.UPDATED, expectedBeerDTO.getId(), expectedBeerDTO);
+    }
+
+    @Test
+    void whenSetQuantityIsGreaterThanMaxThenThrowAnException() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+
+        //When
+        when(beerRepository.updateQuantity(beerDTO.getId(), 60)).thenReturn(0);
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+
+        //Then
+        BeerStockExceededException exception = assertThrows(BeerStockExceededException.class, () -> beerService.setQuantity(beerDTO.getId(), 60));
+        assertThat(exception.getMessage(), is(equalTo("Quantity 60 to set for beer with 1 ID exceeds its max stock capacity of 50.")));
+    }
+
+    @Test
+    void whenSetQuantityIsCalledWithAnInvalidIdThenThrowAnException() {
+        //Given
+
+        //When
+        when(beerRepository.updateQuantity(INVALID_BEER_ID, 10)).thenReturn(0);
+        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        //Then
+        assertThrows(BeerNotFoundException.class, () -> beerService.setQuantity(INVALID_BEER_ID, 10));
+    }
+
+    @Test
+    void whenSetQuantityIsCalledWithANegativeParameterThenThrowAnException() {
+        //Given
+
+        //When
+
+        //Then
+        assertThrows(BeerStockNegativeArgumentException.class, () -> beerService.setQuantity(INVALID_BEER_ID, -1));
+        verify(beerRepository, never()).updateQuantity(INVALID_BEER_ID, -1);
+    }
+
+    @Test
+    void whenUpsertIsCalledThenNewAndExistingBeersAreMergedByName() throws BeerStockInvalidException {
+        //Given
+        BeerDTO existingBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO newBeerDTO = BeerDTOBuilder.builder().id(2L).name("Guinness").build().toBeerDTO();
+        List<String> names = List.of(existingBeerDTO.getName(), newBeerDTO.getName());
+
+        //When
+        when(beerRepository.upsertByName(List.of(beerMapper.toModel(existingBeerDTO), beerMapper.toModel(newBeerDTO))))
+                .thenReturn(Set.of(existingBeerDTO.getName()));
+        when(beerRepository.findByNameIn(names)).thenReturn(List.of(beerMapper.toModel(newBeerDTO), beerMapper.toModel(existingBeerDTO)));
+
+        //Then
+        List<BeerDTO> upsertedBeers = beerService.upsertByName(new BeerUpsertDTO(List.of(existingBeerDTO, newBeerDTO)));
+        assertThat(upsertedBeers, contains(existingBeerDTO, newBeerDTO));
+        verify(beerNameFilter, times(1)).add(newBeerDTO.getName());
+        verify(beerNameFilter, never()).add(existingBeerDTO.getName());
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.UPDATED, existingBeerDTO.getId(), existingBeerDTO);
+        verify(beerChangeFeed, times(1)).record(BeerChangeType.CREATED, newBeerDTO.getId(), newBeerDTO);
+        verify(beerJournal, times(1)).append(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void whenUpsertIsRejectedByTheDatabaseThenThrowAnException() {
+        //Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        doThrow(DataIntegrityViolationException.class).when(beerRepository).upsertByName(List.of(beerMapper.toModel(beerDTO)));
+
+        //Then
+        assertThrows(BeerStockInvalidException.class, () -> beerService.upsertByName(new BeerUpsertDTO(List.of(beerDTO))));
+    }
+
+    private static DataIntegrityViolationException violationOf(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
+}
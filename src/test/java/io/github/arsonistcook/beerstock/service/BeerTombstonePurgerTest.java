@@ -0,0 +1,113 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.entity.Beer;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class BeerTombstonePurgerTest {
+    private static final Duration RETENTION = Duration.ofDays(1);
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_BATCHES = 2;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    private final BeerNameFilter beerNameFilter = mock(BeerNameFilter.class);
+
+    private List<Beer> beers;
+
+    @BeforeEach
+    void setup() {
+        beers = beerRepository.saveAll(IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> new Beer(null, "Beer " + i, "Ambev", 50, 10, BeerType.LAGER, null))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void whenBeerIsSoftDeletedThenQueriesNoLongerSeeIt() {
+        //Given
+        Beer deletedBeer = beers.get(0);
+
+        //When
+        int deleted = beerRepository.softDeleteById(deletedBeer.getId());
+        int deletedAgain = beerRepository.softDeleteById(deletedBeer.getId());
+
+        //Then
+        assertThat(deleted, is(1));
+        assertThat(deletedAgain, is(0));
+        assertThat(beerRepository.findById(deletedBeer.getId()).isPresent(), is(false));
+        assertThat(beerRepository.findByName(deletedBeer.getName()).isPresent(), is(false));
+        assertThat(beerRepository.findAll(), hasSize(4));
+        assertThat(beerRepository.updateQuantity(deletedBeer.getId(), 20), is(0));
+    }
+
+    @Test
+    void whenTombstonesAreYoungerThanTheRetentionThenTheyAreKept() {
+        //Given
+        beers.forEach(beer -> beerRepository.softDeleteById(beer.getId()));
+        BeerTombstonePurger purger = purgerAt(Clock.systemUTC());
+
+        //When
+        int purged = purger.purge();
+
+        //Then
+        assertThat(purged, is(0));
+        verifyNoInteractions(beerNameFilter);
+    }
+
+    @Test
+    void whenTombstonesExpireThenTheyArePurgedInBoundedBatches() {
+        //Given
+        beers.forEach(beer -> beerRepository.softDeleteById(beer.getId()));
+        BeerTombstonePurger purger = purgerAt(Clock.offset(Clock.systemUTC(), RETENTION.plusHours(1)));
+
+        //When
+        int purgedInFirstRun = purger.purge();
+        int purgedInSecondRun = purger.purge();
+
+        //Then
+        assertThat(purgedInFirstRun, is(BATCH_SIZE * MAX_BATCHES));
+        assertThat(purgedInSecondRun, is(1));
+        assertThat(beerRepository.findTombstonesDeletedBefore(Instant.now().plus(RETENTION), Integer.MAX_VALUE), is(empty()));
+        verify(beerNameFilter).remove("Beer 1");
+        verify(beerNameFilter).remove("Beer 5");
+    }
+
+    @Test
+    void whenATombstoneIsPurgedByAnotherWriterMeanwhileThenNoNameOfTheBatchIsRemoved() {
+        //Given
+        BeerRepository racingRepository = mock(BeerRepository.class);
+        BeerTombstonePurger purger = new BeerTombstonePurger(racingRepository, beerNameFilter,
+                Clock.systemUTC(), RETENTION, BATCH_SIZE, MAX_BATCHES);
+
+        //When
+        when(racingRepository.findTombstonesDeletedBefore(any(), eq(BATCH_SIZE)))
+                .thenReturn(List.of(new Object[]{1L, "Beer 1"}, new Object[]{2L, "Beer 2"}), List.of());
+        when(racingRepository.purgeTombstones(List.of(1L, 2L))).thenReturn(1);
+        int purged = purger.purge();
+
+        //Then
+        assertThat(purged, is(1));
+        verifyNoInteractions(beerNameFilter);
+    }
+
+    private BeerTombstonePurger purgerAt(Clock clock) {
+        return new BeerTombstonePurger(beerRepository, beerNameFilter, clock, RETENTION, BATCH_SIZE, MAX_BATCHES);
+    }
+}
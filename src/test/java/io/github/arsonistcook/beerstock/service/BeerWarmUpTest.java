@@ -0,0 +1,57 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.enums.BeerOperation;
+import io.github.arsonistcook.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = "beerstock.warm-up.iterations=5")
+class BeerWarmUpTest {
+
+    @Autowired
+    private BeerWarmUp beerWarmUp;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerChangeFeed beerChangeFeed;
+
+    @Autowired
+    private BeerHotKeyTracker beerHotKeyTracker;
+
+    @Autowired
+    private BeerReadModel beerReadModel;
+
+    @Test
+    void whenApplicationIsReadyThenWarmUpReportsUpWithItsDuration() {
+        //Given
+
+        //When
+        Health health = beerWarmUp.health();
+
+        //Then
+        assertThat(health.getStatus(), is(equalTo(Status.UP)));
+        assertThat((Long) health.getDetails().get("durationMs"), is(greaterThanOrEqualTo(0L)));
+        assertThat(beerReadModel.isReady(), is(true));
+    }
+
+    @Test
+    void whenWarmUpHasRunThenNoBeerChangeOrHotKeyIsLeftBehind() {
+        //Given
+
+        //When
+        beerWarmUp.warmUp();
+
+        //Then
+        assertThat(beerRepository.count(), is(equalTo(0L)));
+        assertThat(beerChangeFeed.lastSequence(), is(equalTo(0L)));
+        assertThat(beerHotKeyTracker.hottest(BeerOperation.FIND_BY_NAME), is(empty()));
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.arsonistcook.beerstock.service;
+
+import io.github.arsonistcook.beerstock.dto.HotKeyDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CountMinSketchTest {
+    private static final int WIDTH = 256;
+    private static final int DEPTH = 4;
+    private static final int TOP_K = 3;
+
+    @Test
+    void whenKeysAreAddedThenEstimatesNeverUndercount() {
+        //Given
+        CountMinSketch countMinSketch = new CountMinSketch(WIDTH, DEPTH, TOP_K);
+
+        //When
+        for (long id = 0; id < 1000; id++) {
+            for (int i = 0; i <= id % 5; i++) {
+                countMinSketch.add(id);
+            }
+        }
+
+        //Then
+        for (long id = 0; id < 1000; id++) {
+            assertThat(countMinSketch.estimate(id), is(greaterThanOrEqualTo(id % 5 + 1)));
+        }
+    }
+
+    @Test
+    void whenSomeKeysAreHammeredThenTheyAreTheHottest() {
+        //Given
+        CountMinSketch countMinSketch = new CountMinSketch(WIDTH, DEPTH, TOP_K);
+
+        //When
+        for (int round = 0; round < 100; round++) {
+            for (long id = 100; id < 1100; id++) {
+                countMinSketch.add(id);
+                if (id % 250 == 0) {
+                    countMinSketch.add(1L);
+                    countMinSketch.add("Brahma");
+                    countMinSketch.add(2L);
+                }
+            }
+        }
+        List<HotKeyDTO> hottest = countMinSketch.hottest(TOP_K);
+
+        //Then
+        assertThat(hottest.stream().map(HotKeyDTO::getKey).collect(Collectors.toList()),
+                containsInAnyOrder(1L, 2L, "Brahma"));
+        assertThat(hottest.get(0).getEstimatedCount(), is(greaterThanOrEqualTo(hottest.get(2).getEstimatedCount())));
+    }
+
+    @Test
+    void whenSketchDecaysThenOldCountsAreHalved() {
+        //Given
+        CountMinSketch countMinSketch = new CountMinSketch(WIDTH, DEPTH, TOP_K);
+        for (int i = 0; i < 8; i++) {
+            countMinSketch.add("Brahma");
+        }
+
+        //When
+        countMinSketch.decay();
+
+        //Then
+        assertThat(countMinSketch.estimate("Brahma"), is(4L));
+    }
+
+    @Test
+    void whenSketchIsClearedThenNoKeyIsHot() {
+        //Given
+        CountMinSketch countMinSketch = new CountMinSketch(WIDTH, DEPTH, TOP_K);
+        countMinSketch.add("Brahma");
+
+        //When
+        countMinSketch.clear();
+
+        //Then
+        assertThat(countMinSketch.hottest(TOP_K), is(empty()));
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RequestTracerTest {
+    private static final int BUFFER_SIZE = 2;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void detach() {
+        Tracing.detach();
+    }
+
+    @Test
+    void whenRequestIsNotSampledThenSpansAreNotRecorded() {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 0, 0, BUFFER_SIZE);
+
+        //When
+        RequestTrace trace = requestTracer.begin("PATCH", "/api/v1/beers/1/decrement");
+
+        //Then
+        assertThat(trace, is(nullValue()));
+        assertThat(Tracing.isActive(), is(false));
+        assertThat(Tracing.span("mapper.toDTO"), is(sameInstance(TraceSpan.NOOP)));
+    }
+
+    @Test
+    void whenSpansAreOpenedInsideEachOtherThenTheyAreNested() {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 1, 0, BUFFER_SIZE);
+        requestTracer.bindTo(registry);
+
+        //When
+        RequestTrace trace = requestTracer.begin("PATCH", "/api/v1/beers/1/decrement");
+        try (TraceSpan validation = Tracing.span("validation")) {
+            // validating
+        }
+        try (TraceSpan controller = Tracing.span("controller")) {
+            try (TraceSpan repository = Tracing.span("repository.findById")) {
+                // querying
+            }
+            try (TraceSpan mapper = Tracing.span("mapper.toDTO")) {
+                // mapping
+            }
+        }
+        requestTracer.finish(trace, 200);
+
+        //Then
+        assertThat(trace.getSpans().stream().map(TraceSpan::getStage).collect(Collectors.toList()),
+                contains("validation", "controller", "repository.findById", "mapper.toDTO"));
+        assertThat(trace.getSpans().stream().map(TraceSpan::getDepth).collect(Collectors.toList()),
+                contains(0, 0, 1, 1));
+        assertThat(trace.getStatus(), is(200));
+        assertThat(registry.get("beerstock.trace.stage").tag("stage", "repository.findById").timer().count(), is(1L));
+        assertThat(Tracing.isActive(), is(false));
+    }
+
+    @Test
+    void whenMoreSlowTracesThanTheBufferHoldsThenOnlyTheMostRecentAreKept() {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 1, 0, BUFFER_SIZE);
+        requestTracer.bindTo(registry);
+
+        //When
+        for (int id = 1; id <= 3; id++) {
+            requestTracer.finish(requestTracer.begin("GET", "/api/v1/beers/" + id), 200);
+        }
+        List<RequestTrace> slowTraces = requestTracer.slowTraces();
+
+        //Then
+        assertThat(slowTraces.stream().map(RequestTrace::getUri).collect(Collectors.toList()),
+                contains("/api/v1/beers/3", "/api/v1/beers/2"));
+    }
+
+    @Test
+    void whenRequestIsFasterThanTheThresholdThenItIsNotKept() {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 1, 60_000, BUFFER_SIZE);
+        requestTracer.bindTo(registry);
+
+        //When
+        requestTracer.finish(requestTracer.begin("GET", "/api/v1/beers"), 200);
+
+        //Then
+        assertThat(requestTracer.slowTraces(), is(empty()));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.arsonistcook.beerstock.trace;
+
+import io.github.arsonistcook.beerstock.controller.BeerController;
+import io.github.arsonistcook.beerstock.dto.BeerChangesDTO;
+import io.github.arsonistcook.beerstock.service.BeerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TracingAspectTest {
+
+    private final BeerService beerService = mock(BeerService.class);
+
+    @AfterEach
+    void detach() {
+        Tracing.detach();
+    }
+
+    @Test
+    void whenAStageReturnsACompletableFutureThenItsSpanEndsWhenTheFutureCompletes() throws Exception {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 1, 0, 1);
+        CompletableFuture<BeerChangesDTO> changes = new CompletableFuture<>();
+        when(beerService.listChanges(0L, 1000L)).thenReturn(changes);
+        BeerController beerController = traced(new BeerController(beerService));
+
+        //When
+        RequestTrace trace = requestTracer.begin("GET", "/api/v1/beers/changes");
+        beerController.listChanges(0L, 1000L);
+        try (TraceSpan mapper = Tracing.span("mapper.toDTO")) {
+            // mapping
+        }
+        TraceSpan controller = trace.getSpans().get(0);
+        long durationBeforeCompletion = controller.getDurationMicros();
+        changes.complete(null);
+
+        //Then
+        assertThat(controller.getStage(), is(equalTo("controller")));
+        assertThat(durationBeforeCompletion, is(-1L));
+        assertThat(controller.getDurationMicros(), is(greaterThanOrEqualTo(0L)));
+        // the span left running does not swallow the stages opened after it returned
+        assertThat(trace.getSpans().get(1).getDepth(), is(0));
+    }
+
+    @Test
+    void whenAStageReturnsAValueThenItsSpanEndsWhenItReturns() {
+        //Given
+        RequestTracer requestTracer = new RequestTracer(Clock.systemUTC(), 1, 0, 1);
+        BeerController beerController = traced(new BeerController(beerService));
+
+        //When
+        RequestTrace trace = requestTracer.begin("GET", "/api/v1/beers/consumption");
+        beerController.listConsumptionByType(null);
+
+        //Then
+        assertThat(trace.getSpans().get(0).getDurationMicros(), is(greaterThanOrEqualTo(0L)));
+    }
+
+    private static BeerController traced(BeerController beerController) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(beerController);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TracingAspect());
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.arsonistcook.beerstock.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class QueryCountUtils {
+    /**
+     * Test property registering {@link ThreadStatementCounter} with Hibernate.
+     */
+    public static final String STATEMENT_COUNTER_PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.arsonistcook.beerstock.utils.QueryCountUtils$ThreadStatementCounter";
+
+    public static void assertMaxStatements(long expectedStatements, Executable operation) {
+        if (!ThreadStatementCounter.registered) {
+            fail("No statement counter registered, add QueryCountUtils.STATEMENT_COUNTER_PROPERTY to the test properties");
+        }
+        long statementsBefore = ThreadStatementCounter.statements();
+        try {
+            operation.execute();
+        } catch (Throwable throwable) {
+            throw new RuntimeException(throwable);
+        }
+        long statements = ThreadStatementCounter.statements() - statementsBefore;
+        if (statements > expectedStatements) {
+            fail(String.format("Expected at most %s JDBC statements but %s were issued", expectedStatements, statements));
+        }
+    }
+
+    /**
+     * Counts the statements Hibernate prepares per thread, so the ones the schedulers (lease
+     * renewal, journal snapshots, tombstone purge, read model reload) issue meanwhile from their
+     * own threads are not charged to the operation under test, as they were with the global
+     * Hibernate statistics.
+     */
+    public static class ThreadStatementCounter implements StatementInspector {
+        private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+        private static volatile boolean registered;
+
+        public ThreadStatementCounter() {
+            registered = true;
+        }
+
+        static long statements() {
+            return STATEMENTS.get()[0];
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get()[0]++;
+            return sql;
+        }
+    }
+}
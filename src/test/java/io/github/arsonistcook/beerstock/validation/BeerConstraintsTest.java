@@ -0,0 +1,129 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import io.github.arsonistcook.beerstock.dto.StockQuantityDTO;
+import io.github.arsonistcook.beerstock.enums.BeerType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Parity of {@link BeerConstraints} with Hibernate Validator: the declared constraints must be the
+ * ones mirrored by hand, and both must accept exactly the same values around every boundary.
+ */
+class BeerConstraintsTest {
+    private static final List<String> STRINGS = Arrays.asList(null, "", " ", "a", "x".repeat(199), "x".repeat(200), "x".repeat(201),
+            "\uD83C\uDF7A".repeat(100), "\uD83C\uDF7A".repeat(101));
+    private static final List<Integer> INTEGERS = Arrays.asList(null, Integer.MIN_VALUE, -1, 0, 1, 99, 100, 101, 499, 500, 501, Integer.MAX_VALUE);
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void cleanup() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void whenConstraintAnnotationsChangeThenTheHandWrittenConstraintsMustBeUpdated() {
+        //Given
+        Map<String, Set<String>> expectedBeerConstraints = Map.of(
+                "name", Set.of("NotNull", "Size(min=1, max=" + BeerConstraints.NAME_MAX_LENGTH + ")"),
+                "brand", Set.of("NotNull", "Size(min=1, max=" + BeerConstraints.BRAND_MAX_LENGTH + ")"),
+                "max", Set.of("NotNull", "Max(" + BeerConstraints.BEER_MAX_STOCK + ")"),
+                "quantity", Set.of("NotNull", "Min(" + BeerConstraints.BEER_MIN_QUANTITY + ")", "Max(" + BeerConstraints.BEER_MAX_QUANTITY + ")"),
+                "type", Set.of("NotNull"));
+
+        //When
+
+        //Then
+        assertThat(constraintsOf(BeerDTO.class), is(equalTo(expectedBeerConstraints)));
+        assertThat(classConstraintsOf(BeerDTO.class), is(equalTo(Set.of("QuantityWithinMax"))));
+        assertThat(constraintsOf(QuantityDTO.class), is(equalTo(Map.of(
+                "quantity", Set.of("NotNull", "Max(" + BeerConstraints.QUANTITY_MAX + ")")))));
+        assertThat(constraintsOf(StockQuantityDTO.class), is(equalTo(Map.of(
+                "quantity", Set.of("NotNull", "Min(" + BeerConstraints.STOCK_QUANTITY_MIN + ")", "Max(" + BeerConstraints.STOCK_QUANTITY_MAX + ")")))));
+    }
+
+    @Test
+    void whenBeersAreValidatedThenTheResultMatchesBeanValidation() {
+        //Given
+        List<BeerDTO> beers = new ArrayList<>();
+        STRINGS.forEach(name -> beers.add(BeerDTOBuilder.builder().name(name).build().toBeerDTO()));
+        STRINGS.forEach(brand -> beers.add(BeerDTOBuilder.builder().brand(brand).build().toBeerDTO()));
+        INTEGERS.forEach(max -> beers.add(new BeerDTO(1L, "Brahma", "Ambev", max, 10, BeerType.LAGER)));
+        INTEGERS.forEach(quantity -> beers.add(new BeerDTO(1L, "Brahma", "Ambev", 50, quantity, BeerType.LAGER)));
+        INTEGERS.forEach(max -> INTEGERS.forEach(quantity -> beers.add(new BeerDTO(1L, "Brahma", "Ambev", max, quantity, BeerType.LAGER))));
+        beers.add(new BeerDTO(null, "Brahma", "Ambev", 50, 10, null));
+        beers.add(new BeerDTO(null, null, null, null, null, null));
+
+        //When
+
+        //Then
+        beers.forEach(beer -> assertThat(beer.toString(), BeerConstraints.isValid(beer), is(validator.validate(beer).isEmpty())));
+    }
+
+    @Test
+    void whenQuantitiesAreValidatedThenTheResultMatchesBeanValidation() {
+        //Given
+
+        //When
+
+        //Then
+        INTEGERS.forEach(quantity -> {
+            QuantityDTO quantityDTO = new QuantityDTO(quantity);
+            StockQuantityDTO stockQuantityDTO = new StockQuantityDTO(quantity);
+            assertThat("quantity " + quantity, BeerConstraints.isValid(quantityDTO), is(validator.validate(quantityDTO).isEmpty()));
+            assertThat("stock quantity " + quantity, BeerConstraints.isValid(stockQuantityDTO), is(validator.validate(stockQuantityDTO).isEmpty()));
+        });
+    }
+
+    private Map<String, Set<String>> constraintsOf(Class<?> type) {
+        return validator.getConstraintsForClass(type).getConstrainedProperties().stream()
+                .collect(Collectors.toMap(property -> property.getPropertyName(),
+                        property -> property.getConstraintDescriptors().stream()
+                                .map(BeerConstraintsTest::describe)
+                                .collect(Collectors.toCollection(TreeSet::new))));
+    }
+
+    private Set<String> classConstraintsOf(Class<?> type) {
+        return validator.getConstraintsForClass(type).getConstraintDescriptors().stream()
+                .map(BeerConstraintsTest::describe)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String describe(ConstraintDescriptor<?> descriptor) {
+        String name = descriptor.getAnnotation().annotationType().getSimpleName();
+        Map<String, Object> attributes = descriptor.getAttributes();
+        if (attributes.containsKey("min") && attributes.containsKey("max")) {
+            return name + "(min=" + attributes.get("min") + ", max=" + attributes.get("max") + ")";
+        }
+        if (attributes.containsKey("value")) {
+            return name + "(" + attributes.get("value") + ")";
+        }
+        return name;
+    }
+}
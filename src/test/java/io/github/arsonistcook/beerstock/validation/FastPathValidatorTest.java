@@ -0,0 +1,80 @@
+package io.github.arsonistcook.beerstock.validation;
+
+import io.github.arsonistcook.beerstock.builder.BeerDTOBuilder;
+import io.github.arsonistcook.beerstock.dto.BeerDTO;
+import io.github.arsonistcook.beerstock.dto.BeerUpsertDTO;
+import io.github.arsonistcook.beerstock.dto.QuantityDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FastPathValidatorTest {
+
+    @Mock
+    private SmartValidator delegate;
+
+    @Test
+    void whenTheBodyIsValidThenTheDelegateIsNotCalled() {
+        //Given
+        FastPathValidator fastPathValidator = new FastPathValidator(delegate);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Errors errors = new BeanPropertyBindingResult(beerDTO, "beerDTO");
+
+        //When
+        fastPathValidator.validate(beerDTO, errors);
+        fastPathValidator.validate(new QuantityDTO(10), errors);
+
+        //Then
+        assertThat(errors.hasErrors(), is(false));
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void whenTheBodyIsInvalidThenTheErrorsAreThoseOfBeanValidation() {
+        //Given
+        LocalValidatorFactoryBean beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+        FastPathValidator fastPathValidator = new FastPathValidator(beanValidator);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("").max(200).quantity(101).build().toBeerDTO();
+        Errors fastPathErrors = new BeanPropertyBindingResult(beerDTO, "beerDTO");
+        Errors beanValidationErrors = new BeanPropertyBindingResult(beerDTO, "beerDTO");
+
+        //When
+        fastPathValidator.validate(beerDTO, fastPathErrors);
+        beanValidator.validate(beerDTO, beanValidationErrors);
+
+        //Then
+        assertThat(fastPathErrors.getErrorCount(), is(equalTo(2)));
+        assertThat(fastPathErrors.getAllErrors(), containsInAnyOrder(beanValidationErrors.getAllErrors().toArray()));
+        beanValidator.close();
+    }
+
+    @Test
+    void whenTheBodyHasNoFastPathOrGroupsAreGivenThenTheDelegateValidates() {
+        //Given
+        FastPathValidator fastPathValidator = new FastPathValidator(delegate);
+        BeerUpsertDTO beerUpsertDTO = new BeerUpsertDTO(List.of(BeerDTOBuilder.builder().build().toBeerDTO()));
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Errors errors = new BeanPropertyBindingResult(beerUpsertDTO, "beerUpsertDTO");
+
+        //When
+        fastPathValidator.validate(beerUpsertDTO, errors);
+        fastPathValidator.validate(beerDTO, errors, Object.class);
+
+        //Then
+        verify(delegate).validate(beerUpsertDTO, errors);
+        verify(delegate).validate(beerDTO, errors, Object.class);
+    }
+}